@@ -0,0 +1,74 @@
+package game_of_life.bench;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game_of_life.Board;
+import game_of_life.SimulationResult;
+import game_of_life.types.EngineType;
+import game_of_life.types.Tribe;
+import game_of_life.utils.Pair;
+
+/**
+ * A whole step of a board, including the census and the cycle detector, and
+ * reading the surviving tribes and the state hash on their own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+  @Param({"100", "1000", "4000"})
+  int size;
+
+  @Param({"0.3", "0.6"})
+  double fill;
+
+  @Param({"3", "8"})
+  int clusters;
+
+  private Board board;
+  private long generation;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    board = new Board(Boards.settings(size, fill, clusters, EngineType.PRIMITIVE));
+    generation = 0;
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    board.close();
+  }
+
+  /**
+   * Steps once and checks whether the game goes on. Every call starts from
+   * a running game, so a board whose game has ended keeps being stepped and
+   * each invocation measures one full step.
+   */
+  @Benchmark
+  public SimulationResult stepAndCheckState() {
+    return board.runHeadless(++generation);
+  }
+
+  @Benchmark
+  public Pair<Set<Tribe>, Long> tribeHashBoard() {
+    return board.tribeHashBoard();
+  }
+}
@@ -0,0 +1,26 @@
+package game_of_life.bench;
+
+import game_of_life.Settings;
+import game_of_life.types.EngineType;
+
+/**
+ * Settings shared by the benchmarks: square boards with a fixed seed, so
+ * every run starts from the same cells.
+ */
+final class Boards {
+  static final long SEED = 42;
+
+  private Boards() {
+  }
+
+  static Settings settings(int size, double fill, int clusters, EngineType engine) {
+    Settings settings = new Settings();
+    settings.rows = size;
+    settings.cols = size;
+    settings.percentageFill = fill;
+    settings.numberOfClusters = clusters;
+    settings.engine = engine;
+    settings.seed = SEED;
+    return settings;
+  }
+}
@@ -0,0 +1,95 @@
+package game_of_life.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game_of_life.Board;
+import game_of_life.Settings;
+import game_of_life.render.AnsiRenderer;
+import game_of_life.render.Viewport;
+import game_of_life.snapshot.Snapshot;
+import game_of_life.types.EngineType;
+
+/**
+ * Drawing a board: the whole board as a string, a full redraw through the
+ * default viewport and the diff sent after one generation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+  private static final PrintStream NOWHERE = new PrintStream(OutputStream.nullOutputStream());
+
+  @Param({"100", "1000", "4000"})
+  int size;
+
+  @Param({"0.3", "0.6"})
+  double fill;
+
+  @Param({"3"})
+  int clusters;
+
+  private Board board;
+  private Viewport viewport;
+  private AnsiRenderer renderer;
+  /** The first two generations of the board. */
+  private Snapshot[] generations;
+  private int shown;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Settings settings = Boards.settings(size, fill, clusters, EngineType.PRIMITIVE);
+    board = new Board(settings);
+    viewport = new Viewport(settings.viewRows, settings.viewCols);
+    renderer = new AnsiRenderer(NOWHERE);
+
+    generations = new Snapshot[2];
+    generations[0] = board.snapshot();
+    board.runHeadless(1);
+    generations[1] = board.snapshot();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    board.close();
+  }
+
+  @Benchmark
+  public String boardToString() {
+    return board.toString();
+  }
+
+  @Benchmark
+  public int ansiFullFrame() {
+    renderer.invalidate();
+    return board.withView(grid -> renderer.render(viewport.show(grid)));
+  }
+
+  /**
+   * Alternates between two generations, so every frame sends the cells that
+   * changed in one step.
+   */
+  @Benchmark
+  public int ansiDiffFrame() {
+    shown ^= 1;
+    return renderer.render(viewport.show(generations[shown]));
+  }
+}
@@ -0,0 +1,86 @@
+package game_of_life.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game_of_life.Settings;
+import game_of_life.engine.Engine;
+import game_of_life.layout.Layout;
+import game_of_life.types.EngineType;
+import game_of_life.types.LayoutType;
+import game_of_life.utils.KMeansClustering;
+
+/**
+ * Setting up a new board: k-means on its own over the picked cells, and every
+ * layout from settings to a filled engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SeedingBenchmark {
+  @Param({"100", "1000", "4000"})
+  int size;
+
+  @Param({"0.3", "0.6"})
+  double fill;
+
+  @Param({"3", "8"})
+  int clusters;
+
+  @Param({"KMEANS", "VORONOI", "HSTRIPES"})
+  LayoutType layout;
+
+  private int[] xs;
+  private int[] ys;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(Boards.SEED);
+    xs = new int[size * size];
+    ys = new int[size * size];
+    int points = 0;
+    for (int col = 0; col < size; col++) {
+      for (int row = 0; row < size; row++) {
+        if (random.nextDouble() < fill) {
+          xs[points] = row;
+          ys[points] = col;
+          points++;
+        }
+      }
+    }
+    xs = Arrays.copyOf(xs, points);
+    ys = Arrays.copyOf(ys, points);
+  }
+
+  @Benchmark
+  public int[] kMeansCluster() {
+    return KMeansClustering.cluster(xs, ys, xs.length, clusters, new Random(Boards.SEED), ForkJoinPool.commonPool());
+  }
+
+  @Benchmark
+  public Engine layout() {
+    Settings settings = Boards.settings(size, fill, clusters, EngineType.PRIMITIVE);
+    settings.layout = layout;
+    Engine engine = Engine.create(settings);
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    Layout.apply(Layout.create(settings, pool), engine, pool);
+    return engine;
+  }
+}
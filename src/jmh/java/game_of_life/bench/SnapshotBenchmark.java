@@ -0,0 +1,82 @@
+package game_of_life.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game_of_life.Board;
+import game_of_life.Settings;
+import game_of_life.snapshot.Snapshot;
+import game_of_life.snapshot.SnapshotFormat;
+import game_of_life.types.EngineType;
+
+/**
+ * Saving and loading a session: taking a snapshot of the board and writing
+ * it, and reading it back into a new board, as {@code Session} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+  @Param({"100", "1000", "4000"})
+  int size;
+
+  @Param({"0.3", "0.6"})
+  double fill;
+
+  @Param({"3"})
+  int clusters;
+
+  @Param({"true", "false"})
+  boolean deflate;
+
+  private Path directory;
+  private Path file;
+  private Board board;
+
+  @Setup
+  public void setUp() throws IOException {
+    Settings settings = Boards.settings(size, fill, clusters, EngineType.PRIMITIVE);
+    settings.deflate = deflate;
+    board = new Board(settings);
+    directory = Files.createTempDirectory("gol-bench");
+    file = directory.resolve("session.gol");
+    SnapshotFormat.write(file, board.snapshot());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    board.close();
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public Path save() throws IOException {
+    SnapshotFormat.write(file, board.snapshot());
+    return file;
+  }
+
+  @Benchmark
+  public Board load() throws IOException {
+    Snapshot snapshot = SnapshotFormat.read(file);
+    return new Board(snapshot);
+  }
+}
@@ -0,0 +1,70 @@
+package game_of_life.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game_of_life.Settings;
+import game_of_life.engine.Dice;
+import game_of_life.engine.Engine;
+import game_of_life.layout.Layout;
+import game_of_life.types.EngineType;
+
+/**
+ * One generation of an engine: what {@code Board} spends its time on between
+ * two frames. Every iteration starts again from the laid out board.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepBenchmark {
+  @Param({"100", "1000", "4000"})
+  int size;
+
+  @Param({"0.3", "0.6"})
+  double fill;
+
+  @Param({"3", "8"})
+  int clusters;
+
+  @Param({"PRIMITIVE", "BITPLANE", "VECTOR"})
+  EngineType engineType;
+
+  private Engine engine;
+  private long generation;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    Settings settings = Boards.settings(size, fill, clusters, engineType);
+    engine = Engine.create(settings);
+    Layout.apply(Layout.create(settings, null), engine, null);
+    generation = 0;
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    engine.close();
+  }
+
+  @Benchmark
+  public long step() {
+    engine.prepNextState(new Dice(Boards.SEED, ++generation), null);
+    engine.swapBuffers();
+    return engine.getCensus().getHash();
+  }
+}
@@ -1,10 +1,23 @@
 package game_of_life;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Stack;
 import java.util.function.Function;
 
 import game_of_life.types.CLICommand;
+import game_of_life.types.CycleDetectorType;
+import game_of_life.types.EngineType;
+import game_of_life.types.LayoutType;
+import game_of_life.types.Phase;
+import game_of_life.types.State;
+import game_of_life.types.Tribe;
+import game_of_life.metrics.LatencyHistogram;
+import game_of_life.metrics.Metrics;
 import game_of_life.utils.Console;
 import game_of_life.utils.Pair;
 import game_of_life.utils.Validator;
@@ -39,23 +52,256 @@ public class App {
         Console.close();
     }
 
+    private static Settings parseSettings(String[] params) {
+        Settings settings = new Settings();
+
+        for (int i = 0; i < params.length; i++) {
+            String flag = Console.getParam(params, i);
+
+            if (flag == null)
+                break;
+
+            String error;
+            String value;
+
+            switch (flag.toLowerCase()) {
+
+                case "-rows":
+                    error = "-rows is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.rows = Integer.parseInt(value);
+                    }
+                    break;
+                case "-cols":
+                    error = "-cols is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.cols = Integer.parseInt(value);
+                    }
+                    break;
+                case "-clusters":
+                    error = "-clusters is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.numberOfClusters = Integer.parseInt(value);
+                    }
+                    break;
+                case "-fill":
+                    error = "-fill is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isDouble(value, error)) {
+                        settings.percentageFill = Double.parseDouble(value);
+                    }
+                    break;
+                case "-delay":
+                    error = "-delay is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.delay = Integer.parseInt(value);
+                    }
+                    break;
+                case "-engine":
+                    error = "-engine is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isEnum(EngineType.class, value, error)) {
+                        settings.engine = EngineType.valueOf(value.toUpperCase());
+                    }
+                    break;
+                case "-threads":
+                    error = "-threads is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.threads = Math.max(1, Integer.parseInt(value));
+                    }
+                    break;
+                case "-seed":
+                    error = "-seed is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isLong(value, error)) {
+                        settings.seed = Long.parseLong(value);
+                    }
+                    break;
+                case "-speed":
+                    error = "-speed is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.speed = Math.max(0, Integer.parseInt(value));
+                    }
+                    break;
+                case "-generations":
+                    error = "-generations is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isLong(value, error)) {
+                        settings.generations = Long.parseLong(value);
+                    }
+                    break;
+                case "-jump":
+                    error = "-jump is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.jump = Math.max(0, Integer.parseInt(value));
+                    }
+                    break;
+                case "-cache":
+                    error = "-cache is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.cacheNodes = Integer.parseInt(value);
+                    }
+                    break;
+                case "-cycles":
+                    error = "-cycles is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isEnum(CycleDetectorType.class, value, error)) {
+                        settings.cycleDetector = CycleDetectorType.valueOf(value.toUpperCase());
+                    }
+                    break;
+                case "-history":
+                    error = "-history is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.historyCapacity = Math.max(1, Integer.parseInt(value));
+                    }
+                    break;
+                case "-chunk":
+                    error = "-chunk is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.chunkSize = Math.max(0, Integer.parseInt(value));
+                    }
+                    break;
+                case "-view_rows":
+                    error = "-view_rows is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.viewRows = Math.max(1, Integer.parseInt(value));
+                    }
+                    break;
+                case "-view_cols":
+                    error = "-view_cols is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.viewCols = Math.max(1, Integer.parseInt(value));
+                    }
+                    break;
+                case "-deflate":
+                    error = "-deflate is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.deflate = Integer.parseInt(value) != 0;
+                    }
+                    break;
+                case "-autosave_generations":
+                    error = "-autosave_generations is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isLong(value, error)) {
+                        settings.autosaveGenerations = Math.max(0, Long.parseLong(value));
+                    }
+                    break;
+                case "-autosave_seconds":
+                    error = "-autosave_seconds is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isLong(value, error)) {
+                        settings.autosaveSeconds = Math.max(0, Long.parseLong(value));
+                    }
+                    break;
+                case "-keep":
+                    error = "-keep is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.autosaveKeep = Math.max(1, Integer.parseInt(value));
+                    }
+                    break;
+                case "-layout":
+                    error = "-layout is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isEnum(LayoutType.class, value, error)) {
+                        settings.layout = LayoutType.valueOf(value.toUpperCase());
+                    }
+                    break;
+                case "-pattern":
+                    error = "-pattern is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && value != null) {
+                        if (Files.isReadable(Paths.get(value))) {
+                            settings.patternFile = value;
+                            settings.layout = LayoutType.PATTERN;
+                        } else {
+                            System.out.println(error);
+                        }
+                    }
+                    break;
+                case "-record":
+                    error = "-record is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && value != null) {
+                        settings.recordFile = value;
+                    }
+                    break;
+                case "-keyframes":
+                    error = "-keyframes is not valid!";
+                    value = Console.getParam(params, i + 1, error);
+                    if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                        settings.keyframeInterval = Math.max(0, Integer.parseInt(value));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return settings;
+    }
+
     private static HashMap<CLICommand, Function<String[], Integer>> initializeFunctionMapping(AppState appState,
             HashMap<String, Session> sessions) {
         HashMap<CLICommand, Function<String[], Integer>> funMapping = new HashMap<>();
 
         funMapping.put(CLICommand.EXIT, params -> {
             appState.shouldExit = true;
+            // Not saved, but journals and recordings are completed.
+            sessions.values().forEach(Session::close);
             System.out.println("Press any character and enter...");
 
             return 0;
         });
 
         funMapping.put(CLICommand.NEW, params -> {
-            int rows = 40;
-            int cols = 90;
-            int numberOfClusters = 3;
-            double percentageFill = 0.3;
-            int delay = 200;
+            Settings settings = parseSettings(params);
+
+            Session session = new Session(settings);
+            sessions.put(session.uuid, session);
+
+            appState.prevSessionIDs.push(appState.currentSessionID);
+            appState.currentSessionID = session.uuid;
+            session.resume();
+            return 0;
+        });
+
+        funMapping.put(CLICommand.SIMULATE, params -> {
+            Settings settings = parseSettings(params);
+            SimulationResult result = Game.simulate(settings);
+
+            System.out.println("State: " + result.getState());
+            if (result.getState() == State.TRIBE_VICTORIOUS)
+                System.out.println("Victorious tribe: " + result.getVictoriousTribe().name());
+            if (result.getState() == State.CYCLING)
+                System.out.println("Cycle period: " + result.getCyclePeriod() + " generations");
+            System.out.println("Generations: " + result.getGenerations());
+            System.out.println("Wall time: " + (result.getWallTimeNanos() / 1_000_000) + " ms");
+            System.out.println("Active chunks: " + String.format("%.1f%%", 100 * result.getMeanActiveRatio()));
+            return 0;
+        });
+
+        funMapping.put(CLICommand.TOURNAMENT, params -> {
+            Settings base = parseSettings(params);
+            long fromSeed = 0;
+            long toSeed = 99;
+            double[] fills = { base.percentageFill };
+            int[] clusterCounts = { base.numberOfClusters };
+            int workers = Runtime.getRuntime().availableProcessors();
+            String out = "./data/tournament-" + System.currentTimeMillis() + ".csv";
 
             for (int i = 0; i < params.length; i++) {
                 String flag = Console.getParam(params, i);
@@ -67,40 +313,41 @@ public class App {
                 String value;
 
                 switch (flag.toLowerCase()) {
-
-                    case "-rows":
-                        error = "-rows is not valid!";
+                    case "-seeds":
+                        error = "-seeds is not valid!";
                         value = Console.getParam(params, i + 1, error);
-                        if (i + 1 < params.length && Validator.isInteger(value, error)) {
-                            rows = Integer.parseInt(value);
+                        if (i + 1 < params.length && Validator.isLongRange(value, error)) {
+                            String[] range = value.split(":");
+                            fromSeed = Long.parseLong(range[0]);
+                            toSeed = range.length > 1 ? Long.parseLong(range[1]) : fromSeed;
                         }
                         break;
-                    case "-cols":
-                        error = "-cols is not valid!";
+                    case "-fills":
+                        error = "-fills is not valid!";
                         value = Console.getParam(params, i + 1, error);
-                        if (i + 1 < params.length && Validator.isInteger(value, error)) {
-                            cols = Integer.parseInt(value);
+                        if (i + 1 < params.length && Validator.isDoubleList(value, error)) {
+                            fills = Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray();
                         }
                         break;
-                    case "-clusters":
-                        error = "-clusters is not valid!";
+                    case "-cluster_counts":
+                        error = "-cluster_counts is not valid!";
                         value = Console.getParam(params, i + 1, error);
-                        if (i + 1 < params.length && Validator.isInteger(value, error)) {
-                            numberOfClusters = Integer.parseInt(value);
+                        if (i + 1 < params.length && Validator.isIntegerList(value, error)) {
+                            clusterCounts = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
                         }
                         break;
-                    case "-fill":
-                        error = "-fill is not valid!";
+                    case "-workers":
+                        error = "-workers is not valid!";
                         value = Console.getParam(params, i + 1, error);
-                        if (i + 1 < params.length && Validator.isDouble(value, error)) {
-                            percentageFill = Integer.parseInt(value);
+                        if (i + 1 < params.length && Validator.isInteger(value, error)) {
+                            workers = Integer.parseInt(value);
                         }
                         break;
-                    case "-delay":
-                        error = "-clusters is not valid!";
+                    case "-out":
+                        error = "-out is not valid!";
                         value = Console.getParam(params, i + 1, error);
-                        if (i + 1 < params.length && Validator.isInteger(value, error)) {
-                            delay = Integer.parseInt(value);
+                        if (i + 1 < params.length && value != null) {
+                            out = value;
                         }
                         break;
                     default:
@@ -108,11 +355,34 @@ public class App {
                 }
             }
 
-            Session session = new Session(rows, cols, numberOfClusters, percentageFill, delay);
-            sessions.put(session.uuid, session);
+            long start = System.nanoTime();
+            List<Tournament.Run> runs;
+            try {
+                runs = new Tournament(base, fromSeed, toSeed, fills, clusterCounts, workers).run();
+            } catch (InterruptedException e) {
+                System.out.println("Tournament interrupted, no results written.");
+                return 0;
+            }
+            System.out.println("Played " + runs.size() + " boards in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            long failed = runs.stream().filter(run -> run.result.getState() == State.FAILED).count();
+            if (failed > 0)
+                System.out.println(failed + " boards failed and are counted as such.");
+
+            for (Tournament.Summary summary : Tournament.summarize(runs)) {
+                StringBuilder line = new StringBuilder("fill " + summary.fill + ", clusters " + summary.clusters + ":");
+                Tribe.getTribes().forEach(tribe -> line.append(" " + tribe.name() + " "
+                        + String.format("%.1f%%", 100 * summary.winRate(tribe))));
+                line.append(", cycling " + String.format("%.1f%%", 100 * summary.stateRate(State.CYCLING)));
+                line.append(", median generations " + summary.generationsPercentile(50));
+                System.out.println(line);
+            }
 
-            appState.prevSessionIDs.push(appState.currentSessionID);
-            appState.currentSessionID = session.uuid;
+            try {
+                Tournament.writeCsv(Paths.get(out), runs);
+                System.out.println("Results written to: " + out);
+            } catch (IOException e) {
+                System.err.println("Error occurred while writing tournament results.");
+            }
             return 0;
         });
 
@@ -122,10 +392,24 @@ public class App {
             if (sessionID == null)
                 return 0;
 
+            // Already open: it has been stepping all along, so only show it.
+            Session open = sessions.get(sessionID);
+            if (open != null) {
+                if (!sessionID.equals(appState.currentSessionID)) {
+                    appState.prevSessionIDs.remove(sessionID);
+                    appState.prevSessionIDs.push(appState.currentSessionID);
+                    appState.currentSessionID = sessionID;
+                }
+                open.resume();
+                return 0;
+            }
+
             try {
                 appState.prevSessionIDs.push(appState.currentSessionID);
                 appState.currentSessionID = sessionID;
-                sessions.put(sessionID, new Session(sessionID));
+                Session session = new Session(sessionID);
+                sessions.put(sessionID, session);
+                session.resume();
             } catch (Error e) {
                 if (e.getMessage() == "no_session") {
                     appState.currentSessionID = appState.prevSessionIDs.pop();
@@ -162,7 +446,9 @@ public class App {
 
         funMapping.put(CLICommand.CLOSE, (params) -> {
             String sessionID = Console.getParam(params, 0, "Please provide a session id!");
-            sessions.remove(sessionID);
+            Session closed = sessions.remove(sessionID);
+            if (closed != null)
+                closed.close();
 
             if (appState.currentSessionID == sessionID)
                 appState.currentSessionID = appState.prevSessionIDs.pop();
@@ -207,26 +493,90 @@ public class App {
                 if (!sessionID.equals(""))
                     System.out.println("\t" + sessionID);
             });
+            System.out.println("Open sessions: ");
+            sessions.forEach((sessionID, session) -> System.out.println("\t" + sessionID + " - generation "
+                    + session.getLatestGeneration() + ", " + session.getState().name().toLowerCase()));
 
             return 0;
         });
 
+        funMapping.put(CLICommand.STATS, (params) -> {
+            String sessionID = params.length > 0 && !params[0].isEmpty() ? params[0] : appState.currentSessionID;
+            Session session = sessions.get(sessionID);
+            if (session == null) {
+                System.out.println("Session: " + sessionID + " does not exist!");
+                return 0;
+            }
+
+            Metrics metrics = session.getMetrics();
+            System.out.println("Session: " + sessionID);
+            System.out.println("Generation: " + metrics.getGeneration() + ", "
+                    + String.format("%.1f", metrics.getGenerationsPerSecond()) + " generations/s");
+            StringBuilder population = new StringBuilder("Population:");
+            Tribe.getTribes().forEach(tribe -> population.append(" " + tribe.name() + " " + metrics.getPopulation(tribe)));
+            System.out.println(population);
+            System.out.println("Visited states: " + metrics.getMemoSize());
+            double allocated = metrics.getAllocatedBytesPerGeneration();
+            System.out.println("Allocated: " + (allocated < 0 ? "not measured" : Math.round(allocated) + " bytes per generation"));
+            System.out.println("Rendered: " + metrics.getFramesRendered() + " frames, " + metrics.getBytesRendered() + " bytes");
+            System.out.println(String.format("%-10s %10s %10s %10s %10s %10s %10s", "phase (us)", "count", "mean", "p50", "p99",
+                    "p99.9", "max"));
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram latency = metrics.getLatency(phase);
+                System.out.println(String.format("%-10s %10d %10.1f %10.1f %10.1f %10.1f %10.1f", phase.name().toLowerCase(),
+                        latency.getCount(), latency.getMeanMicros(), latency.getP50Micros(), latency.getP99Micros(),
+                        latency.getP999Micros(), latency.getMaxMicros()));
+            }
+            return 0;
+        });
+
         funMapping.put(CLICommand.HELP, (params) -> {
             System.out.println(
-                    "new -rows <rows> -cols <cols> -clusters <number_of_clusters> -fill <percentage_fill> -delay <delay> - creates a new session with given parameters. Any number and combination of parameters can be given."
+                    "new -rows <rows> -cols <cols> -clusters <number_of_clusters> -fill <percentage_fill> -delay <delay> -engine <engine> -threads <threads> -seed <seed> -speed <speed> -jump <jump> -cache <nodes> -cycles <detector> -history <capacity> -chunk <size> -view_rows <view_rows> -view_cols <view_cols> -deflate <deflate> -autosave_generations <autosave_generations> -autosave_seconds <autosave_seconds> -keep <keep> -keyframes <keyframes> -record <record_file> -layout <layout> -pattern <pattern_file> - creates a new session with given parameters and shows it; e leaves it stepping in the background. Any number and combination of parameters can be given."
                             + "\n\t<rows> - number of rows. Defaults to: 40"
                             + "\n\t<cols> - number of cols. Defaults to: 90"
-                            + "\n\t<number_of_clusters> - number of clusters. Defaults to: 3. Max: 3"
+                            + "\n\t<number_of_clusters> - number of clusters. Defaults to: 3"
                             + "\n\t<percentage_fill> - number between 0 and 1, describing the percent of map filled. Defaults to: 0.3"
-                            + "\n\t<delay> - The time each generation will stack visualized. Defaults to: 200 (ms)\n");
-            System.out.println("open <sessionID> - opens a session by ID if it exists.");
+                            + "\n\t<delay> - time between two frames; each frame shows the newest generation. Defaults to: 200 (ms)"
+                            + "\n\t<engine> - stepping engine: reference (Tribe[][]), primitive (byte[]), sparse (living cells only), hashlife (memoized quadtree, survival coin-flip always succeeds), bitplane (64 cells per long), vector (Vector API kernel, needs --add-modules jdk.incubator.vector, scalar otherwise) or mapped (off-heap, in ./data/<sessionID>.board, which also serves as its save). Defaults to: primitive"
+                            + "\n\t<threads> - number of threads stepping each generation. Defaults to: 1"
+                            + "\n\t<seed> - seed of the initial layout and the survival coin-flip. Defaults to: random"
+                            + "\n\t<speed> - generations computed per second, independently of the frames shown; 0 for as fast as possible. Defaults to: 5"
+                            + "\n\t<jump> - hashlife only: each step advances 2^<jump> generations. Defaults to: 0"
+                            + "\n\t<nodes> - hashlife only: quadtree nodes kept in the cache. Defaults to: 1048576"
+                            + "\n\t<detector> - cycle detection: history (every state, unbounded), window (last <capacity> states) or brent (constant memory, reports later). Defaults to: history"
+                            + "\n\t<capacity> - states kept by the window detector; longer cycles go unnoticed. Defaults to: 4096"
+                            + "\n\t<size> - primitive only: side of the chunks skipped while nothing around them changes; 0 for one chunk. Defaults to: 16"
+                            + "\n\t<view_rows> - rows of the board shown at once; w/a/s/d move the view, +/- zoom and f fits the board. Defaults to: 40"
+                            + "\n\t<view_cols> - columns of the board shown at once. Defaults to: 90"
+                            + "\n\t<deflate> - 1 to compress saved sessions with Deflate, 0 to store them run-length encoded only. Defaults to: 1"
+                            + "\n\t<autosave_generations> - save to ./data/<sessionID>.autosave-<generation>.gol in the background every so many generations; 0 for never. Defaults to: 0"
+                            + "\n\t<autosave_seconds> - also save every so many seconds; 0 for never. Defaults to: 60"
+                            + "\n\t<keep> - number of autosaves kept. Defaults to: 3"
+                            + "\n\t<keyframes> - history journal in ./data/<sessionID>.journal, for b/n (back/forward) and g <generation> (seek) while playing: the whole board every so many generations, the changed cells in between; 0 for no journal. Defaults to: 0"
+                            + "\n\t<record_file> - streams every generation to this file, one pixel per cell: an animated GIF playing at <speed> if it ends in .gif, raw RGB frames (ffmpeg -f rawvideo -pix_fmt rgb24 -s <cols>x<rows>) otherwise. Generations are dropped rather than slowing the game when encoding falls behind. The file is complete once the session is closed. Defaults to: no recording"
+                            + "\n\t<layout> - how tribes start out: kmeans (random cells grouped by k-means), voronoi (random cells belong to the nearest of <number_of_clusters> random sites), hstripes or vstripes (one horizontal or vertical stripe per cluster) or pattern (see -pattern). Clusters beyond the third take turns over the tribes. Defaults to: kmeans"
+                            + "\n\t<pattern_file> - text file drawn with A, B and C for the tribes and anything else for empty cells, one line per row and centred on the board; lines starting with ! or # are skipped. Implies -layout pattern\n");
+            System.out.println(
+                    "simulate <new parameters> -generations <generations> - plays a game headlessly as fast as possible and reports how it ended."
+                            + "\n\t<generations> - stop after this many generations. Defaults to: 0 (no limit)");
+            System.out.println(
+                    "tournament <new parameters> -seeds <from>:<to> -fills <fills> -cluster_counts <cluster_counts> -workers <workers> -out <filepath> - plays every combination headlessly and writes win rates as CSV."
+                            + "\n\t<from>:<to> - inclusive range of seeds played for each combination. Defaults to: 0:99"
+                            + "\n\t<fills> - comma separated fill ratios. Defaults to: the -fill value"
+                            + "\n\t<cluster_counts> - comma separated cluster counts. Defaults to: the -clusters value"
+                            + "\n\t<workers> - boards played at the same time. Defaults to: number of cores"
+                            + "\n\t<filepath> - summary CSV; per-board results go to <filepath>-runs.csv. Defaults to: ./data/tournament-<time>.csv");
+            System.out.println("open <sessionID> - opens a session by ID if it exists and shows it; a session that is already open is only shown.");
             System.out.println("switch <sessionID> - switch a session by ID if it exists.");
-            System.out.println("resume <sessionID> - resumes a session(game) by ID if it exists.");
+            System.out.println("resume <sessionID> - shows the current session(game). Every open session keeps stepping on a shared pool of one thread per core, shown or not; only the shown one renders.");
             System.out.println(
                     "save <sessionID> - saves the session by session id. Defaults to the current sessionID.");
-            System.out.println("save_as <filepath> - saves a .dat file in the specified directory.");
+            System.out.println("save_as <filepath> - saves a binary .gol snapshot at the given path.");
             System.out.println("close <sessionID> - closes a session by ID if it exists.]");
-            System.out.println("info - displays some useful information about all sessions.");
+            System.out.println("info - displays some useful information about all sessions, including the generation and state of every open one.");
+            System.out.println(
+                    "stats <sessionID> - displays generations per second, the latency of every phase of a generation and a frame (compute, hash, persist, await, render, sleep), the population of every tribe, the states the cycle detector remembers, allocation per generation and the bytes sent to the terminal. Defaults to the current sessionID. The same metrics are exported over JMX under game_of_life:type=Session and game_of_life:type=Latency.");
             System.out.println("help - displays this very menu.");
             System.out.println("exit - exits the program. Sessions will not be saved automatically.");
             appState.prevSessionIDs.forEach(sessionID -> {
@@ -1,227 +1,518 @@
 package game_of_life;
 
+import game_of_life.cycle.CycleDetector;
+import game_of_life.engine.Census;
+import game_of_life.engine.Dice;
+import game_of_life.engine.Engine;
+import game_of_life.engine.Grid;
+import game_of_life.engine.MappedEngine;
+import game_of_life.layout.Layout;
+import game_of_life.metrics.Metrics;
+import game_of_life.record.Recorder;
+import game_of_life.snapshot.Autosaver;
+import game_of_life.snapshot.Journal;
+import game_of_life.snapshot.Snapshot;
+import game_of_life.types.Phase;
 import game_of_life.types.State;
 import game_of_life.types.Tribe;
 import game_of_life.utils.Color;
-import game_of_life.utils.Console;
-import game_of_life.utils.KMeansClustering;
 import game_of_life.utils.Pair;
-import game_of_life.utils.Point;
 import io.vavr.Function0;
 import io.vavr.Function2;
 import io.vavr.collection.Stream;
-import io.vavr.collection.Vector;
 
-import java.io.Serializable;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.Random;
+import java.io.IOException;
+import java.util.EnumSet;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
-public class Board implements Serializable {
-  private static final long serialVersionUID = 8776813025115521740L;
-
+public class Board {
   private int ROWS = 40;
   private int COLS = 90;
   private int NUM_CLUSTERS = 3;
   private double PERCENTAGE_FILL = .3d;
   private int DELAY;
+  private int THREADS = 1;
+  private long SEED;
+  private int SPEED;
+
+  private long generation = 0;
+
+  private final Settings settings;
+
+  private CycleDetector cycleDetector;
+  private long cyclePeriod = 0;
+  private Tribe victoriousTribe = Tribe.NONE;
+
+  private Engine engine;
+  private ForkJoinPool pool;
+  private Simulation simulation;
+  private Autosaver autosaver;
+  private Journal journal;
+  private Recorder recorder;
+  private long nextFrameAt;
+  private final Metrics metrics = new Metrics();
+
+  public Board(Settings settings) {
+    this(settings, 0);
+    initializeBoard();
+  }
 
-  private LinkedHashSet<Integer> visitedStatesMemo = new LinkedHashSet<>();
-
-  private Tribe[][] frontBuffer;
-  private Tribe[][] backBuffer;
-
-  public Board(int rows, int cols, int numberOfClusters, double percentageFill, int delay) {
-    this.ROWS = rows;
-    this.COLS = cols;
-    this.NUM_CLUSTERS = numberOfClusters;
-    this.PERCENTAGE_FILL = percentageFill;
-    this.DELAY = delay;
+  /**
+   * Resumes a saved game from its snapshot. The cycle detector starts empty,
+   * so a cycle that began before the snapshot is reported one period later.
+   */
+  public Board(Snapshot snapshot) {
+    this(snapshot.getSettings(), snapshot.getGeneration());
+    snapshot.forEachLiving(engine::set);
+  }
 
-    frontBuffer = emptyBuffer();
-    backBuffer = emptyBuffer();
-    this.DELAY = delay;
+  /**
+   * Resumes a game from its board file, in place. As with snapshots, the
+   * cycle detector starts empty.
+   */
+  public Board(MappedEngine engine) {
+    this(engine.getSettings(), engine.getGeneration(), engine);
+  }
 
-    Pair<Integer, Integer> xRange = Pair.of(0, ROWS);
-    Pair<Integer, Integer> yRange = Pair.of(0, COLS);
+  private Board(Settings settings, long generation) {
+    this(settings, generation, Engine.create(settings));
+  }
 
-    initializeBoard(xRange, yRange);
-    prepNextState();
+  private Board(Settings settings, long generation, Engine engine) {
+    this.settings = settings.copy();
+    this.generation = generation;
+    this.ROWS = settings.rows;
+    this.COLS = settings.cols;
+    this.NUM_CLUSTERS = settings.numberOfClusters;
+    this.PERCENTAGE_FILL = settings.percentageFill;
+    this.DELAY = settings.delay;
+    this.THREADS = settings.threads;
+    this.SEED = settings.seed;
+    this.SPEED = settings.speed;
+
+    this.engine = engine;
+    cycleDetector = CycleDetector.create(settings);
   }
 
-  public static Board create(int rows, int cols, int numberOfClusters, double percentageFill, int delay) {
-    return new Board(rows, cols, numberOfClusters, percentageFill, delay);
+  public static Board create(Settings settings) {
+    return new Board(settings);
   }
 
-  public Tribe[][] emptyBuffer() {
-    Tribe[][] buffer = new Tribe[ROWS][COLS];
-    for (Tribe[] row : buffer)
-      Arrays.fill(row, Tribe.NONE);
-    return buffer;
+  /**
+   * Starts stepping on the shared {@link SessionScheduler}, whether or not
+   * the board is shown, unless it already does.
+   */
+  public void startSimulation() {
+    if (simulation != null)
+      return;
+
+    // Shown in place, see withView, so nothing the size of the board is copied.
+    simulation = new Simulation(SessionScheduler.shared(), SPEED, this::step);
+    simulation.start();
   }
 
+  /**
+   * Shows one frame: waits for the simulation to publish a generation newer
+   * than the shown one, at most until the next frame is due, prints the
+   * newest one and then waits out the rest of the frame. The simulation keeps
+   * stepping meanwhile, so generations computed between two frames are skipped.
+   */
   public State nextState(Function0<Integer> printAction) {
-    Console.clear();
-    swapBuffers();
+    startSimulation();
+
+    // After a pause or a slow frame, start counting from now rather than catching up.
+    long start = System.nanoTime();
+    nextFrameAt = Math.max(nextFrameAt, start) + TimeUnit.MILLISECONDS.toNanos(DELAY);
+    simulation.await(nextFrameAt);
+    long awaited = System.nanoTime();
+
     printAction.apply();
-    CompletableFuture.runAsync(this::prepNextState);
-    sleep();
+    long rendered = System.nanoTime();
+    sleepUntil(nextFrameAt);
+
+    metrics.record(Phase.AWAIT, awaited - start);
+    metrics.record(Phase.RENDER, rendered - awaited);
+    metrics.record(Phase.SLEEP, System.nanoTime() - rendered);
+
+    return simulation.getState();
+  }
+
+  /**
+   * The newest generation computed, with the settings of this board. A step
+   * in progress is waited for; the simulation goes on afterwards.
+   */
+  public Snapshot snapshot() {
+    synchronized (this) {
+      return new Snapshot(settings, generation, engine);
+    }
+  }
+
+  /**
+   * Pauses or resumes the simulation thread, if it runs.
+   */
+  public void setPaused(boolean paused) {
+    if (simulation != null)
+      simulation.setPaused(paused);
+  }
+
+  /**
+   * Steps as fast as possible on the calling thread, without rendering or
+   * sleeping, until the game ends or {@code maxGenerations} is reached
+   * ({@code 0} for no limit).
+   */
+  public SimulationResult runHeadless(long maxGenerations) {
+    stopSimulation();
+
+    long start = System.nanoTime();
+    long steps = 0;
+    double activeRatioSum = 0;
+    State state = State.RUNNING;
+    while (state == State.RUNNING && (maxGenerations <= 0 || generation < maxGenerations)) {
+      prepNextState();
+      swapBuffers();
+      state = computeBoardNumericalState(engine, generation);
+      activeRatioSum += engine.getActiveRatio();
+      steps++;
+    }
+    long wallTime = System.nanoTime() - start;
+
+    double meanActiveRatio = steps > 0 ? activeRatioSum / steps : 0;
+
+    return new SimulationResult(state, state == State.TRIBE_VICTORIOUS ? victoriousTribe : Tribe.NONE, generation,
+        cyclePeriod, wallTime, meanActiveRatio);
+  }
+
+  public void close() {
+    stopSimulation();
+    if (pool != null)
+      pool.shutdown();
+    engine.close();
+  }
+
+  /**
+   * Saves the board in the background while it is simulated. Boards kept off
+   * the heap are not autosaved: their board file is always up to date. Nor
+   * are boards too large to copy into one array.
+   */
+  public void setAutosaver(Autosaver autosaver) {
+    this.autosaver = isCopyable() ? autosaver : null;
+  }
+
+  /**
+   * Records the current generation and every one the simulation computes
+   * from now on in the journal. Boards kept off the heap or too large to
+   * copy into one array are not journaled, as every generation would be
+   * copied in full.
+   */
+  public void setJournal(Journal journal) {
+    this.journal = isCopyable() ? journal : null;
+    record();
+  }
+
+  /**
+   * Streams every generation the simulation computes from now on to the
+   * recorder. Boards kept off the heap or too large to copy into one array
+   * are not recorded, as every generation would be copied in full.
+   */
+  public void setRecorder(Recorder recorder) {
+    this.recorder = isCopyable() ? recorder : null;
+  }
+
+  private boolean isCopyable() {
+    return !engine.isOffHeap() && Grid.fitsInArray(ROWS, COLS);
+  }
+
+  /**
+   * The shown generation, or the newest recorded one before it, read back
+   * from the journal.
+   *
+   * @return null without a journal
+   */
+  public Snapshot history(long generation) throws IOException {
+    return journal != null ? journal.seek(Math.min(generation, getGeneration())) : null;
+  }
+
+  /**
+   * The newest journaled generation before {@code generation}, or -1.
+   */
+  public long previousGeneration(long generation) {
+    return journal != null ? journal.previousGeneration(generation) : -1;
+  }
+
+  /**
+   * The oldest journaled generation after {@code generation}, or -1.
+   */
+  public long nextGeneration(long generation) {
+    return journal != null ? journal.nextGeneration(generation) : -1;
+  }
+
+  /**
+   * Goes back to an earlier generation and plays on from there; the journal
+   * and the autosaves forget the generations after it. As with snapshots,
+   * the cycle detector starts empty. The simulation is stopped and starts
+   * again with the next frame.
+   */
+  public void rewind(Snapshot snapshot) {
+    stopSimulation();
+    engine.close();
+    engine = Engine.create(settings);
+    snapshot.forEachLiving(engine::set);
+    generation = snapshot.getGeneration();
+    cycleDetector = CycleDetector.create(settings);
+    cyclePeriod = 0;
+    victoriousTribe = Tribe.NONE;
+    if (autosaver != null)
+      autosaver.rewound(generation);
+    record();
+  }
+
+  /**
+   * Flushes a file-backed board to its file, which then holds the newest
+   * generation computed. A step in progress is waited for.
+   *
+   * @return false if the board keeps no file
+   */
+  public boolean checkpoint() throws IOException {
+    synchronized (this) {
+      return engine.checkpoint();
+    }
+  }
+
+  /**
+   * Runs {@code action} on the shown generation, straight from the engine,
+   * whose buffers are not swapped meanwhile. Only the cells the action reads
+   * are looked at, so drawing a window costs the same however large the
+   * board is; the action should not take longer than a frame, as the
+   * simulation waits for it to swap.
+   */
+  public <T> T withView(Function<Grid, T> action) {
+    synchronized (engine) {
+      return action.apply(engine);
+    }
+  }
 
-    return this.computeBoardNumericalState();
+  /**
+   * Stops stepping; the last generation computed stays shown:
+   * every generation up to it has been through the cycle detector, so the
+   * game resumes from there.
+   */
+  public void stopSimulation() {
+    if (simulation == null)
+      return;
+
+    simulation.stop();
+    simulation = null;
   }
 
   @Override
   public String toString() {
+    return withView(this::print);
+  }
+
+  private String print(Grid view) {
     StringBuilder sb = new StringBuilder();
 
-    Function2<Integer, Integer, String> printCell = (i, j) -> frontBuffer[i][j].toString();
+    Function2<Integer, Integer, String> printCell = (i, j) -> view.get(i, j).toString();
 
+    // Row numbers are right-aligned and at least two wide.
+    String label = "%" + Math.max(2, Integer.toString(ROWS).length()) + "s";
     Stream.range(0, ROWS).forEach(i -> {
       String idxStr = Integer.toString(i + 1);
-      sb.append(Color.c_default() + String.format("%" + (3 - idxStr.length()) + "s", idxStr) + " ");
+      sb.append(Color.c_default() + String.format(label, idxStr) + " ");
       Stream.range(0, COLS).forEach(j -> {
         sb.append(printCell.apply(i, j));
       });
       sb.append("\n");
     });
 
-    sb.append(Color.c_default() + "e) exit | p) pause/start");
+    sb.append(Color.c_default() + "e) leave | p) pause/start");
     return sb.toString();
   }
 
-  private void initializeBoard(Pair<Integer, Integer> xRange, Pair<Integer, Integer> yRange) {
-    Vector<Point<Integer>> points = this.generatePositions(xRange, yRange);
-    Vector<Vector<Point<Integer>>> clusters = KMeansClustering.kMeansCluster(points, NUM_CLUSTERS);
-    Tribe[] tribes = Tribe.values();
+  /**
+   * Lays out the tribes as the settings ask. Layouts run on all cores, as
+   * they only run once per board.
+   */
+  private void initializeBoard() {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    Layout.apply(Layout.create(settings, pool), engine, pool);
+  }
+
+  private void swapBuffers() {
+    synchronized (engine) {
+      engine.swapBuffers();
+      generation += engine.getGenerationsPerStep();
+    }
+  }
 
-    clusters.zipWithIndex()
-        .map(cluster_idx -> Pair.of(tribes[cluster_idx._2()], cluster_idx._1()))
-        .forEach(tribe_cluster -> {
-          Tribe tribe = tribe_cluster.getFirst();
-          tribe_cluster.getSecond().forEach(point -> frontBuffer[point.getX()][point.getY()] = tribe);
-        });
+  /**
+   * Runs on a scheduler worker: steps the engine once and checks whether the
+   * game goes on. Holds the monitor of the board, so that snapshots see whole
+   * generations.
+   */
+  private synchronized State step() {
+    long allocated = Metrics.allocatedBytes();
+    long start = System.nanoTime();
+    prepNextState();
+    swapBuffers();
+    long computed = System.nanoTime();
+    State state = computeBoardNumericalState(engine, generation);
+    long hashed = System.nanoTime();
+
+    if (autosaver != null && autosaver.isDue(generation))
+      autosaver.offer(settings, generation, engine);
+    record();
+    if (recorder != null)
+      recorder.offer(engine);
+    long persisted = System.nanoTime();
+
+    metrics.record(Phase.COMPUTE, computed - start);
+    metrics.record(Phase.HASH, hashed - computed);
+    metrics.record(Phase.PERSIST, persisted - hashed);
+    metrics.stepped(generation, engine.getCensus(), cycleDetector.size(),
+        allocated >= 0 ? Metrics.allocatedBytes() - allocated : -1);
+    return state;
   }
 
-  private Vector<Point<Integer>> generatePositions(
-      Pair<Integer, Integer> xRange,
-      Pair<Integer, Integer> yRange) {
-    Random random = new Random();
+  private void record() {
+    if (journal == null)
+      return;
 
-    Vector<Integer> xRangeVector = Vector.range(xRange.getFirst(), xRange.getSecond());
-    Vector<Integer> yRangeVector = Vector.range(yRange.getFirst(), yRange.getSecond());
+    try {
+      journal.record(generation, engine);
+    } catch (IOException e) {
+      System.err.println("History journal stopped at generation " + generation + ": " + e.getMessage());
+      journal = null;
+    }
+  }
 
-    return yRangeVector.flatMap(y -> xRangeVector.filter(_x -> random.nextDouble() < PERCENTAGE_FILL)
-        .map(x -> Point.from(x, y)));
+  /**
+   * Number of the shown generation, which is the newest one computed.
+   */
+  public long getGeneration() {
+    synchronized (engine) {
+      return generation;
+    }
   }
 
-  private void swapBuffers() {
-    Tribe[][] temp = frontBuffer;
-    frontBuffer = backBuffer;
-    backBuffer = temp;
+  public Settings getSettings() {
+    return settings.copy();
   }
 
-  private void sleep() {
+  /**
+   * Number of the newest generation computed, shown or not.
+   */
+  public synchronized long getLatestGeneration() {
+    return generation;
+  }
+
+  /**
+   * State of the game at the newest generation computed, shown or not.
+   */
+  public State getState() {
+    Simulation simulation = this.simulation;
+    return simulation != null ? simulation.getLatestState() : State.RUNNING;
+  }
+
+  /**
+   * What this board measures while the simulation runs; headless runs are not measured.
+   */
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  private static void sleepUntil(long deadlineNanos) {
     try {
-      TimeUnit.MILLISECONDS.sleep(DELAY);
+      TimeUnit.NANOSECONDS.sleep(deadlineNanos - System.nanoTime());
     } catch (InterruptedException e) {
-      e.printStackTrace();
+      Thread.currentThread().interrupt();
     }
   }
 
   private void prepNextState() {
-    Random random = new Random();
-    Vector<Integer> rows = Vector.range(0, ROWS);
-    Vector<Integer> cols = Vector.range(0, COLS);
-
-    rows.forEach(row -> cols.forEach(col -> {
-      Tribe currentTribe = frontBuffer[row][col];
-      Vector<Pair<Tribe, Integer>> tribe_aliveCounts = this.countTribeNeighbors(row, col);
-      int countLivingNeighbors = tribe_aliveCounts.foldLeft(0, (acc, pair) -> acc + pair.getSecond());
-
-      if (Tribe.isAlive(currentTribe) && (countLivingNeighbors < 2 ||
-          countLivingNeighbors > 3)) {
-        this.backBuffer[row][col] = Tribe.NONE;
-      } else if (Tribe.isAlive(currentTribe)) {
-        Pair<Tribe, Integer> tmp = tribe_aliveCounts.find(pair -> pair.getFirst() == currentTribe)
-            .getOrElse(Pair.of(currentTribe, -1));
-        if (tmp.getSecond() == 2 || tmp.getSecond() == 3) {
-          this.backBuffer[row][col] = currentTribe;
-        } else if (random.nextDouble() <= .5d) {
-          this.backBuffer[row][col] = currentTribe;
-        } else {
-          this.backBuffer[row][col] = Tribe.NONE;
-        }
-      } else if (!Tribe.isAlive(currentTribe)) {
-        Pair<Tribe, Integer> tmp = tribe_aliveCounts
-            .find(pair -> pair.getSecond() == 3).getOrElse(Pair.of(Tribe.NONE, -1));
-        this.backBuffer[row][col] = tmp.getFirst();
-      }
-    }));
-  }
-
-  private Vector<Pair<Tribe, Integer>> countTribeNeighbors(int row, int col) {
-    Vector<Tribe> neighbors = Vector.rangeClosed(-1, 1)
-        .flatMap(offsetRow -> Vector.rangeClosed(-1, 1).map(offsetCol -> Point.from(row + offsetRow, col + offsetCol)))
-        .reject(point -> point.getX() - row == 0 && point.getY() - col == 0)
-        .filter(point -> point.getX() >= 0 &&
-            point.getX() < frontBuffer.length &&
-            point.getY() >= 0 &&
-            point.getY() < frontBuffer[0].length)
-        .map(point -> frontBuffer[point.getX()][point.getY()])
-        .filter(tribe -> tribe != Tribe.NONE);
-
-    return Vector.of(Tribe.values())
-        .map(tribe -> Pair.of(tribe, neighbors.filter(curr_tribe -> curr_tribe == tribe).size()));
-  }
-
-  public Pair<Set<Tribe>, Integer> tribeHashBoard() {
-    int hash = 0;
-    final int prime = 31;
-    Set<Tribe> presentTribes = new HashSet<>();
-
-    for (int i = 0; i < ROWS; i++) {
-      for (int j = 0; j < COLS; j++) {
-        hash = prime * hash + frontBuffer[i][j].hashCode();
-        presentTribes.add(frontBuffer[i][j]);
-      }
-    }
-    presentTribes.remove(Tribe.NONE);
-    return Pair.of(presentTribes, hash);
+    engine.prepNextState(new Dice(SEED, generation + 1), getPool());
   }
 
-  public int cycleFrequency(int hash) {
-    int position = 0;
-    for (int currentHash : visitedStatesMemo) {
-      if (currentHash == hash) {
-        return visitedStatesMemo.size() - position - 1;
-      }
-      position++;
-    }
+  private ForkJoinPool getPool() {
+    if (THREADS <= 1)
+      return null;
+    if (pool == null)
+      pool = new ForkJoinPool(THREADS);
+    return pool;
+  }
 
-    throw new Error("cycle must exist");
+  public Pair<Set<Tribe>, Long> tribeHashBoard() {
+    return withView(this::tribeHashBoard);
   }
 
-  private State computeBoardNumericalState() {
-    Pair<Set<Tribe>, Integer> tribes_hash = tribeHashBoard();
+  /**
+   * Reads the tribes still alive and the Zobrist hash from the census the
+   * engine keeps up to date while stepping, so no cells are scanned.
+   */
+  private Pair<Set<Tribe>, Long> tribeHashBoard(Grid grid) {
+    Census census = grid.getCensus();
+    Set<Tribe> presentTribes = EnumSet.noneOf(Tribe.class);
+
+    for (Tribe tribe : Tribe.getTribes())
+      if (census.getPopulation(tribe) > 0)
+        presentTribes.add(tribe);
+    return Pair.of(presentTribes, census.getHash());
+  }
+
+  /**
+   * The last tribe standing, once the board is {@link State#TRIBE_VICTORIOUS};
+   * {@link Tribe#NONE} before that. Kept per board, as several games step at once.
+   */
+  public synchronized Tribe getVictoriousTribe() {
+    return victoriousTribe;
+  }
+
+  /**
+   * Number of generations between two occurrences of the repeated state, once
+   * the board is {@link State#CYCLING}; 0 before that.
+   */
+  public long getCyclePeriod() {
+    return cyclePeriod;
+  }
+
+  /**
+   * Fraction of the board recomputed by the last step; below 1 when the
+   * engine skips regions where nothing can change.
+   */
+  public double getActiveRatio() {
+    return engine.getActiveRatio();
+  }
+
+  /**
+   * Number of states the cycle detector currently remembers.
+   */
+  public int getCycleDetectorSize() {
+    return cycleDetector.size();
+  }
+
+  private State computeBoardNumericalState(Grid grid, long generation) {
+    Pair<Set<Tribe>, Long> tribes_hash = tribeHashBoard(grid);
     Set<Tribe> presentTribes = tribes_hash.getFirst();
+    // An empty board repeats itself too; report it as the end it is.
+    if (presentTribes.isEmpty())
+      return State.EVERYONE_LOST;
     Tribe lastTribe = Tribe.NONE;
     for (Tribe tribe : presentTribes)
       lastTribe = tribe;
 
-    Integer currentHash = tribes_hash.getSecond();
+    long period = cycleDetector.observe(tribes_hash.getSecond(), generation);
 
-    if (visitedStatesMemo.contains(currentHash))
+    if (period > 0) {
+      cyclePeriod = period;
       return State.CYCLING;
-    else if (presentTribes.size() == 1 && lastTribe == Tribe.NONE)
-      return State.EVERYONE_LOST;
-    else if (presentTribes.size() == 1)
-      return State.TRIBE_VICTORIOUS.setVictoriousTribe(lastTribe);
-
-    visitedStatesMemo.add(currentHash);
+    }
+    else if (presentTribes.size() == 1) {
+      victoriousTribe = lastTribe;
+      return State.TRIBE_VICTORIOUS;
+    }
 
     return State.RUNNING;
   }
@@ -1,21 +1,106 @@
 package game_of_life;
 
-import java.io.Serializable;
+import java.io.IOException;
 
+import game_of_life.engine.MappedEngine;
+import game_of_life.metrics.Metrics;
+import game_of_life.record.Recorder;
+import game_of_life.render.AnsiRenderer;
+import game_of_life.render.Viewport;
+import game_of_life.snapshot.Autosaver;
+import game_of_life.snapshot.Journal;
+import game_of_life.snapshot.Snapshot;
 import game_of_life.types.State;
 import game_of_life.utils.Color;
 import game_of_life.utils.Console;
 
-public class Game implements Serializable {
-  private static final long serialVersionUID = 8776813025115521740L;
-
+public class Game {
   private volatile boolean exit = false;
   private volatile boolean pause = false;
   private volatile State signal = State.RUNNING;
   private Board board;
+  private Viewport viewport;
+  private AnsiRenderer renderer;
+  /** An earlier generation shown from the journal instead of the game; null for the game. */
+  private volatile Snapshot rewound;
+
+  public Game(Settings settings) {
+    board = Board.create(settings);
+    viewport = new Viewport(settings.viewRows, settings.viewCols);
+  }
+
+  public Game(Snapshot snapshot) {
+    board = new Board(snapshot);
+    Settings settings = snapshot.getSettings();
+    viewport = new Viewport(settings.viewRows, settings.viewCols);
+  }
+
+  public Game(MappedEngine engine) {
+    board = new Board(engine);
+    Settings settings = engine.getSettings();
+    viewport = new Viewport(settings.viewRows, settings.viewCols);
+  }
+
+  public Snapshot snapshot() {
+    return board.snapshot();
+  }
+
+  /**
+   * See {@link Board#setAutosaver(Autosaver)}.
+   */
+  public void setAutosaver(Autosaver autosaver) {
+    board.setAutosaver(autosaver);
+  }
+
+  /**
+   * See {@link Board#setJournal(Journal)}.
+   */
+  public void setJournal(Journal journal) {
+    board.setJournal(journal);
+  }
+
+  /**
+   * See {@link Board#setRecorder(Recorder)}.
+   */
+  public void setRecorder(Recorder recorder) {
+    board.setRecorder(recorder);
+  }
+
+  public Settings getSettings() {
+    return board.getSettings();
+  }
 
-  public Game(int rows, int cols, int numberOfClusters, double percentageFill, int delay) {
-    board = Board.create(rows, cols, numberOfClusters, percentageFill, delay);
+  /**
+   * See {@link Board#getMetrics()}.
+   */
+  public Metrics getMetrics() {
+    return board.getMetrics();
+  }
+
+  /**
+   * See {@link Board#checkpoint()}.
+   */
+  public boolean checkpoint() throws IOException {
+    return board.checkpoint();
+  }
+
+  /**
+   * Creates a game and plays it headlessly, see {@link #runHeadless(long)}.
+   */
+  public static SimulationResult simulate(Settings settings) {
+    Game game = new Game(settings);
+    SimulationResult result = game.runHeadless(settings.generations);
+    game.close();
+    return result;
+  }
+
+  /**
+   * Plays the game to the end as fast as possible, with no rendering and no delay.
+   *
+   * @param maxGenerations stop after this many generations even if still running; 0 for no limit
+   */
+  public SimulationResult runHeadless(long maxGenerations) {
+    return board.runHeadless(maxGenerations);
   }
 
   public void setExit(boolean exit) {
@@ -24,43 +109,182 @@ public class Game implements Serializable {
 
   public void setPause(boolean pause) {
     this.pause = pause;
+    board.setPaused(pause);
+  }
+
+  public void close() {
+    exit = true;
+    board.close();
   }
 
+  /**
+   * Starts stepping in the background; {@link #loop()} shows the game.
+   */
   public void start() {
-    System.out.println(board);
-    loop();
+    board.startSimulation();
+  }
+
+  /**
+   * See {@link Board#getLatestGeneration()}.
+   */
+  public long getLatestGeneration() {
+    return board.getLatestGeneration();
+  }
+
+  /**
+   * See {@link Board#getState()}.
+   */
+  public State getState() {
+    return board.getState();
+  }
+
+  private AnsiRenderer renderer() {
+    if (renderer == null)
+      renderer = new AnsiRenderer();
+    return renderer;
+  }
+
+  private Viewport viewport() {
+    // Games saved before viewports existed show the default window.
+    if (viewport == null) {
+      Settings defaults = new Settings();
+      viewport = new Viewport(defaults.viewRows, defaults.viewCols);
+    }
+    return viewport;
   }
 
+  private int render() {
+    Snapshot shown = rewound;
+    int bytes = shown != null
+        ? renderer().render(viewport().show(shown))
+        : board.withView(grid -> renderer().render(viewport().show(grid)));
+    board.getMetrics().rendered(bytes);
+    return bytes;
+  }
+
+  private long shownGeneration() {
+    Snapshot shown = rewound;
+    return shown != null ? shown.getGeneration() : board.getGeneration();
+  }
+
+  /**
+   * Pauses the game and shows {@code generation} from the journal, or the
+   * newest recorded generation before it; the game itself when that is the
+   * shown one or later. Resuming plays on from the generation shown.
+   */
+  private void seek(long generation) {
+    if (generation < 0)
+      return;
+
+    setPause(true);
+    try {
+      Snapshot snapshot = generation < board.getGeneration() ? board.history(generation) : null;
+      if (snapshot != null || generation >= board.getGeneration())
+        rewound = snapshot;
+    } catch (IOException e) {
+      System.err.println("Could not read generation " + generation + " from the journal: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Moves or zooms the viewport; every character of the input is one key, so
+   * {@code dd} moves twice.
+   */
+  private void navigate(String input) {
+    for (char key : input.toLowerCase().toCharArray()) {
+      switch (key) {
+        case 'b':
+          seek(board.previousGeneration(shownGeneration()));
+          break;
+        case 'n':
+          if (rewound != null)
+            seek(board.nextGeneration(shownGeneration()));
+          break;
+        case 'w':
+          viewport().pan(-1, 0);
+          break;
+        case 's':
+          viewport().pan(1, 0);
+          break;
+        case 'a':
+          viewport().pan(0, -1);
+          break;
+        case 'd':
+          viewport().pan(0, 1);
+          break;
+        case '+':
+          viewport().zoomIn();
+          break;
+        case '-':
+          viewport().zoomOut();
+          break;
+        case 'f':
+          viewport().fit();
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Shows the game until it ends or e is typed. Only the game shown renders;
+   * the game keeps stepping after e, see {@link #start()}.
+   */
   public void loop() {
+    renderer().invalidate();
+    render();
+
     new Thread(() -> {
       while (!exit) {
-        if (Console.hasNextLine()) {
-          String input = Console.readInput().trim();
+        String line = Console.pollInput(100);
+        if (line != null) {
+          String input = line.trim();
           if (input.equalsIgnoreCase("e")) {
             exit = true;
           } else if (input.equalsIgnoreCase("p")) {
-            pause = !pause;
+            setPause(!pause);
+          } else if (input.matches("[gG]\\s*\\d{1,18}")) {
+            seek(Long.parseLong(input.substring(1).trim()));
+          } else {
+            navigate(input);
           }
         }
       }
     }).start();
 
     while (!exit) {
-      if (pause)
+      if (pause) {
+        // Still show moves of the viewport while paused.
+        render();
+        sleep(50);
         continue;
+      }
+
+      Snapshot shown = rewound;
+      if (shown != null) {
+        // Resumed while showing an earlier generation: play on from there.
+        board.rewind(shown);
+        rewound = null;
+      }
 
       switch (signal) {
         case RUNNING:
-          signal = board.nextState(() -> {
-            System.out.println(board);
-            return 1;
-          });
+          signal = board.nextState(this::render);
           break;
         case CYCLING:
           System.out.println(Color.blue() +
               "The state is cyclic! The cycle repeats every "
               + Color.red()
-              + Integer.toString(board.cycleFrequency(board.tribeHashBoard().getSecond()))
+              + Long.toString(board.getCyclePeriod())
               + Color.blue()
               + " generations!"
               + Color.c_default());
@@ -74,15 +298,24 @@ public class Game implements Serializable {
           System.out.println(Color.blue() +
               "The " +
               Color.red() +
-              signal.getVictoriousTribe().name() +
+              board.getVictoriousTribe().name() +
               Color.blue() +
               " tribe was victorious!" +
               Color.c_default());
           exit = true;
           break;
+        case FAILED:
+          System.out.println(Color.blue() + "The simulation failed and was stopped." + Color.c_default());
+          exit = true;
+          break;
         default:
           break;
       }
     }
+
+    System.out.println(Color.c_default() + "Rendered " + renderer().getFrames() + " frames, "
+        + Math.round(renderer().getMeanFrameBytes()) + " bytes per frame on average.");
+    if (signal == State.RUNNING)
+      System.out.println(pause ? "The game stays paused in the background." : "The game goes on in the background.");
   }
 }
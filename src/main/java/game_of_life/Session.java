@@ -1,46 +1,207 @@
 package game_of_life;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.UUID;
 
+import javax.management.JMException;
+
+import game_of_life.engine.Grid;
+import game_of_life.engine.MappedEngine;
+import game_of_life.metrics.Metrics;
+import game_of_life.record.Recorder;
+import game_of_life.snapshot.Autosaver;
+import game_of_life.snapshot.Journal;
+import game_of_life.snapshot.Snapshot;
+import game_of_life.snapshot.SnapshotFormat;
+import game_of_life.types.EngineType;
+import game_of_life.types.State;
+
 public class Session {
+  /** Generations that may wait for the recorder before it drops them. */
+  private static final int RECORD_QUEUE = 8;
+
   public final String uuid;
   private Path directory;
   private String filename;
   private Game game;
+  private final Autosaver autosaver;
+  private Journal journal;
+  private Recorder recorder;
 
-  public Session(int rows, int cols, int numberOfClusters, double percentageFill, int delay) {
+  public Session(Settings settings) {
     this.uuid = UUID.randomUUID().toString();
     this.directory = Paths.get("./data");
-    this.filename = uuid + ".dat";
+    this.filename = uuid + ".gol";
 
-    game = new Game(rows, cols, numberOfClusters, percentageFill, delay);
+    if (settings.engine == EngineType.MAPPED && settings.boardFile == null) {
+      settings = settings.copy();
+      settings.boardFile = boardFile().toString();
+    }
+    game = new Game(settings);
+    autosaver = autosaver(settings);
+    journal(settings, false);
+    recorder(settings);
+    metrics();
     game.start();
   }
 
+  /**
+   * A reopened session autosaves and journals as it was set up to, and keeps
+   * its journal if it has one. Games saved before these settings were part of
+   * the save autosave with the defaults and start no journal.
+   */
   public Session(String sessionID) throws Error {
     this.uuid = sessionID;
     this.directory = Paths.get("./data");
-    this.filename = sessionID + ".dat";
+    this.filename = sessionID + ".gol";
 
     loadSessionState();
+    Settings settings = game.getSettings();
+    autosaver = autosaver(settings);
+    journal(settings, true);
+    metrics();
     game.start();
   }
 
+  private Autosaver autosaver(Settings settings) {
+    Autosaver autosaver = new Autosaver(Paths.get("./data"), uuid, settings.autosaveGenerations,
+        settings.autosaveSeconds, settings.autosaveKeep);
+    game.setAutosaver(autosaver);
+    return autosaver;
+  }
+
+  /**
+   * Keeps the history of the game in ./data/<uuid>.journal. Mapped boards and
+   * boards too large to copy keep no history, see {@link Board#setJournal(Journal)}.
+   * A journal is only started with a keyframe interval, but one already there
+   * is reopened.
+   */
+  private void journal(Settings settings, boolean reopen) {
+    if (settings.engine == EngineType.MAPPED || !Grid.fitsInArray(settings.rows, settings.cols))
+      return;
+    Path path = Paths.get("./data").resolve(uuid + ".journal");
+    reopen = reopen && Files.exists(path);
+    if (!reopen && settings.keyframeInterval <= 0)
+      return;
+
+    try {
+      journal = reopen
+          ? Journal.open(path)
+          : Journal.create(path, settings, settings.keyframeInterval);
+      game.setJournal(journal);
+    } catch (IOException e) {
+      System.err.println("History journal disabled: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Exports the metrics of the game over JMX, see {@link Metrics#register(String)}.
+   */
+  private void metrics() {
+    try {
+      game.getMetrics().register(uuid);
+    } catch (JMException e) {
+      System.err.println("Metrics not exported over JMX: " + e.getMessage());
+    }
+  }
+
+  public Metrics getMetrics() {
+    return game.getMetrics();
+  }
+
+  public long getLatestGeneration() {
+    return game.getLatestGeneration();
+  }
+
+  public State getState() {
+    return game.getState();
+  }
+
+  private void recorder(Settings settings) {
+    if (settings.recordFile == null || settings.engine == EngineType.MAPPED)
+      return;
+    if (!Grid.fitsInArray(settings.rows, settings.cols)) {
+      System.err.println("Recording disabled: the board is too large to copy");
+      return;
+    }
+
+    // A GIF plays at the speed the game is stepped at; as fast as GIFs go if that is unbounded.
+    int delayMillis = settings.speed > 0 ? 1000 / settings.speed : 0;
+    try {
+      recorder = Recorder.open(Paths.get(settings.recordFile), settings.rows, settings.cols, delayMillis,
+          RECORD_QUEUE);
+      game.setRecorder(recorder);
+    } catch (IOException e) {
+      System.err.println("Recording disabled: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Shows the game until e is typed or the game ends. Sessions step in the
+   * background from the moment they are created or opened, shown or not.
+   */
   public void resume() {
     this.game.setExit(false);
     this.game.setPause(false);
     this.game.loop();
   }
 
+  public void close() {
+    game.close();
+    game.getMetrics().unregister();
+    autosaver.close();
+    if (journal != null) {
+      try {
+        journal.close();
+      } catch (IOException e) {
+        System.err.println("Error occurred while closing the history journal.");
+      }
+    }
+    if (recorder != null) {
+      try {
+        recorder.close();
+        System.out.println("Recorded " + recorder.getRecorded() + " generations, dropped "
+            + recorder.getDropped() + ".");
+      } catch (IOException e) {
+        System.err.println("Error occurred while recording: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Board files under ./data are their own checkpoint, so a mapped game is
+   * only flushed; any other game is written as a snapshot.
+   */
   public void saveSessionState() {
+    try {
+      if (game.checkpoint()) {
+        System.out.println("Session state saved successfully.");
+        return;
+      }
+    } catch (IOException e) {
+      System.err.println("Error occurred while saving session state.");
+      return;
+    }
+
+    writeSnapshot();
+  }
+
+  /**
+   * Writes a snapshot to the given path, whatever the engine.
+   */
+  public void saveSessionState(String filePath) {
+    Path path = Paths.get(filePath);
+    this.directory = path.getParent();
+    this.filename = path.getFileName().toString();
+
+    writeSnapshot();
+  }
+
+  private void writeSnapshot() {
     if (directory == null) {
       System.err.println("Directory path is not set. Cannot save session state.");
       return;
@@ -48,22 +209,34 @@ public class Session {
 
     try {
       Files.createDirectories(directory);
-      FileOutputStream fileOutputStream = new FileOutputStream(directory.resolve(filename).toFile());
-      ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream);
-      objectOutputStream.writeObject(game);
-      objectOutputStream.close();
+      SnapshotFormat.write(directory.resolve(filename), game.snapshot());
       System.out.println("Session state saved successfully.");
     } catch (IOException e) {
       System.err.println("Error occurred while saving session state.");
+    } catch (IllegalArgumentException e) {
+      // Too large for a snapshot; see Grid#cellCount.
+      System.err.println("Session state not saved: " + e.getMessage());
     }
   }
 
-  public void saveSessionState(String filePath) {
-    Path path = Paths.get(filePath);
-    this.directory = path.getParent();
-    this.filename = path.getFileName().toString();
+  /**
+   * The saved snapshot or the newest autosave, whichever was written last.
+   */
+  private Path newestSave() throws IOException {
+    Path snapshot = directory.resolve(filename);
+    List<Path> autosaves = Autosaver.checkpoints(directory, uuid);
+    if (autosaves.isEmpty())
+      return snapshot;
 
-    saveSessionState();
+    Path autosave = autosaves.get(autosaves.size() - 1);
+    if (Files.exists(snapshot)
+        && Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(autosave)) >= 0)
+      return snapshot;
+    return autosave;
+  }
+
+  private Path boardFile() {
+    return directory.resolve(uuid + ".board");
   }
 
   public void loadSessionState() throws Error {
@@ -73,13 +246,20 @@ public class Session {
     }
 
     try {
-      FileInputStream fileInputStream = new FileInputStream(directory.resolve(filename).toFile());
-      ObjectInputStream objectInputStream = new ObjectInputStream(fileInputStream);
-      this.game = (Game) objectInputStream.readObject();
-      this.game.setExit(false);
-      objectInputStream.close();
+      // The board file is rewritten on every step, so it is newer than any save of the game.
+      if (Files.exists(boardFile())) {
+        this.game = new Game(MappedEngine.open(boardFile()));
+      } else {
+        Snapshot snapshot = SnapshotFormat.read(newestSave());
+        Settings settings = snapshot.getSettings();
+        if (settings.engine == EngineType.MAPPED && settings.boardFile == null) {
+          settings.boardFile = boardFile().toString();
+          snapshot = new Snapshot(settings, snapshot.getGeneration(), snapshot);
+        }
+        this.game = new Game(snapshot);
+      }
       System.out.println("Session state loaded successfully.");
-    } catch (IOException | ClassNotFoundException e) {
+    } catch (IOException e) {
       throw new Error("no_session");
     }
   }
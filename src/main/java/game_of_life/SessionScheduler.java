@@ -0,0 +1,49 @@
+package game_of_life;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Steps the simulations of every open session on one pool of worker
+ * threads, one per core, rather than a thread per session. A simulation runs
+ * in slices: it steps until {@link #SLICE_NANOS} have passed or its next
+ * generation is not due yet, then queues its next slice behind the others,
+ * so a session stepping as fast as it can does not hold up the rest, and a
+ * session waiting for its next generation takes no worker at all.
+ */
+final class SessionScheduler {
+  /** How long a simulation steps before the next one in line gets the worker. */
+  static final long SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final SessionScheduler SHARED = new SessionScheduler(Runtime.getRuntime().availableProcessors());
+
+  private final ScheduledThreadPoolExecutor executor;
+
+  SessionScheduler(int workers) {
+    AtomicInteger count = new AtomicInteger();
+    executor = new ScheduledThreadPoolExecutor(Math.max(workers, 1), runnable -> {
+      Thread thread = new Thread(runnable, "simulation-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    // Stopped simulations should not leave their next slice in the queue.
+    executor.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * The scheduler every board of this JVM runs on.
+   */
+  static SessionScheduler shared() {
+    return SHARED;
+  }
+
+  ScheduledFuture<?> schedule(Runnable slice, long delayNanos) {
+    return executor.schedule(slice, Math.max(delayNanos, 0), TimeUnit.NANOSECONDS);
+  }
+
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,136 @@
+package game_of_life;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import game_of_life.types.CycleDetectorType;
+import game_of_life.types.EngineType;
+import game_of_life.types.LayoutType;
+
+/**
+ * Parameters of a new game, as parsed from the {@code new} command.
+ */
+public class Settings implements Cloneable {
+  public int rows = 40;
+  public int cols = 90;
+  public int numberOfClusters = 3;
+  public double percentageFill = 0.3;
+  public int delay = 200;
+  public EngineType engine = EngineType.PRIMITIVE;
+  public int threads = 1;
+  public long seed = new Random().nextLong();
+  public int speed = 5;
+  public long generations = 0;
+  public int jump = 0;
+  public int cacheNodes = 1 << 20;
+  public CycleDetectorType cycleDetector = CycleDetectorType.HISTORY;
+  public int historyCapacity = 4096;
+  public int chunkSize = 16;
+  public int viewRows = 40;
+  public int viewCols = 90;
+  public boolean deflate = true;
+  /** File holding the cells of a mapped board; a temporary file in ./data if not set. */
+  public String boardFile;
+  public long autosaveGenerations = 0;
+  public long autosaveSeconds = 60;
+  public int autosaveKeep = 3;
+  /** Generations between two full boards in the history journal; 0 for no journal. */
+  public int keyframeInterval = 0;
+  /** Animation every generation is streamed to: a GIF if it ends in .gif, raw RGB frames otherwise; none if not set. */
+  public String recordFile;
+  public LayoutType layout = LayoutType.KMEANS;
+  /** Text file drawing the board for the pattern layout. */
+  public String patternFile;
+
+  public Settings copy() {
+    try {
+      return (Settings) clone();
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Writes the settings that describe a game to a binary header, big-endian:
+   * i32 rows, i32 cols, i64 seed, engine name, i32 clusters, f64 fill,
+   * i32 delay, i32 threads, i32 speed, i32 jump, i32 cache nodes, cycle
+   * detector name, i32 history capacity, i32 chunk size, i32 view rows,
+   * i32 view cols, i64 autosave generations, i64 autosave seconds,
+   * i32 autosaves kept, i32 keyframe interval, layout name. Names are a u8
+   * length followed by ASCII. Where files are kept and how they are
+   * compressed is not part of it.
+   */
+  public void write(ByteBuffer buffer) {
+    buffer.putInt(rows);
+    buffer.putInt(cols);
+    buffer.putLong(seed);
+    putName(buffer, engine.name());
+    buffer.putInt(numberOfClusters);
+    buffer.putDouble(percentageFill);
+    buffer.putInt(delay);
+    buffer.putInt(threads);
+    buffer.putInt(speed);
+    buffer.putInt(jump);
+    buffer.putInt(cacheNodes);
+    putName(buffer, cycleDetector.name());
+    buffer.putInt(historyCapacity);
+    buffer.putInt(chunkSize);
+    buffer.putInt(viewRows);
+    buffer.putInt(viewCols);
+    buffer.putLong(autosaveGenerations);
+    buffer.putLong(autosaveSeconds);
+    buffer.putInt(autosaveKeep);
+    buffer.putInt(keyframeInterval);
+    putName(buffer, layout.name());
+  }
+
+  /**
+   * Reads settings written by {@link #write(ByteBuffer)}.
+   *
+   * @param version of the file format they were written in; version 1
+   *                headers end at the view cols, and the settings after
+   *                them keep their defaults
+   * @throws IllegalArgumentException if a name is unknown
+   */
+  public static Settings read(ByteBuffer buffer, int version) {
+    Settings settings = new Settings();
+    settings.rows = buffer.getInt();
+    settings.cols = buffer.getInt();
+    settings.seed = buffer.getLong();
+    settings.engine = EngineType.valueOf(getName(buffer));
+    settings.numberOfClusters = buffer.getInt();
+    settings.percentageFill = buffer.getDouble();
+    settings.delay = buffer.getInt();
+    settings.threads = buffer.getInt();
+    settings.speed = buffer.getInt();
+    settings.jump = buffer.getInt();
+    settings.cacheNodes = buffer.getInt();
+    settings.cycleDetector = CycleDetectorType.valueOf(getName(buffer));
+    settings.historyCapacity = buffer.getInt();
+    settings.chunkSize = buffer.getInt();
+    settings.viewRows = buffer.getInt();
+    settings.viewCols = buffer.getInt();
+    if (version < 2)
+      return settings;
+
+    settings.autosaveGenerations = buffer.getLong();
+    settings.autosaveSeconds = buffer.getLong();
+    settings.autosaveKeep = buffer.getInt();
+    settings.keyframeInterval = buffer.getInt();
+    settings.layout = LayoutType.valueOf(getName(buffer));
+    return settings;
+  }
+
+  private static void putName(ByteBuffer buffer, String name) {
+    byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+    buffer.put((byte) bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String getName(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.get() & 0xFF];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+}
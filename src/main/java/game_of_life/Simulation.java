@@ -0,0 +1,221 @@
+package game_of_life;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import game_of_life.types.State;
+
+/**
+ * Steps a board on the workers of a {@link SessionScheduler}, as fast as
+ * possible or at a target number of generations per second, while the game
+ * loop, if the session is shown, waits for a newer generation at its own
+ * frame rate. A session that is not shown keeps stepping.
+ *
+ * Nothing is copied out: the game loop draws the window it shows straight
+ * from the board, so the generations in between cost nothing to skip.
+ */
+class Simulation {
+  private final SessionScheduler scheduler;
+  private final Supplier<State> step;
+  /** Minimum time between two generations; 0 for no limit. */
+  private final long intervalNanos;
+
+  private State latestState = State.RUNNING;
+  private boolean fresh;
+  private boolean wanted;
+  private boolean paused;
+  private boolean finished;
+  private boolean stopped;
+
+  /** Whether a slice is queued or running. */
+  private boolean scheduled;
+  /** Whether a slice is stepping right now. */
+  private boolean running;
+  private ScheduledFuture<?> pending;
+  /** When the next generation is due, a {@link System#nanoTime()} value; only read by slices. */
+  private long next;
+
+  /**
+   * @param step              computes the next generation and returns the state of the game after it
+   * @param generationsPerSec target speed; 0 steps as fast as possible
+   */
+  Simulation(SessionScheduler scheduler, int generationsPerSec, Supplier<State> step) {
+    this.scheduler = scheduler;
+    this.step = step;
+    this.intervalNanos = generationsPerSec > 0 ? TimeUnit.SECONDS.toNanos(1) / generationsPerSec : 0;
+  }
+
+  synchronized void start() {
+    next = System.nanoTime();
+    schedule(0);
+  }
+
+  /**
+   * Queues the next slice, unless one is queued or running already or there
+   * is nothing to step. Holds the lock.
+   */
+  private void schedule(long delayNanos) {
+    if (scheduled || paused || stopped || finished)
+      return;
+    scheduled = true;
+    pending = scheduler.schedule(this::run, delayNanos);
+  }
+
+  private void run() {
+    synchronized (this) {
+      // Cancelled by stop() after the executor had already picked it up.
+      if (stopped) {
+        scheduled = false;
+        notifyAll();
+        return;
+      }
+      running = true;
+    }
+
+    long delay = -1;
+    try {
+      delay = slice();
+    } catch (RuntimeException | Error e) {
+      System.err.println("Simulation stopped: " + e);
+      fail();
+    } finally {
+      synchronized (this) {
+        running = false;
+        scheduled = false;
+        if (delay >= 0)
+          schedule(delay);
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Ends the game as {@link State#FAILED}. Nothing is published, as the
+   * failed step may have left the board half written.
+   */
+  private synchronized void fail() {
+    latestState = State.FAILED;
+    fresh = false;
+    finished = true;
+    notifyAll();
+  }
+
+  /**
+   * Steps until the slice is used up, the next generation is not due yet, or
+   * the game is paused, stopped or over.
+   *
+   * @return nanoseconds until the next slice, -1 for none
+   */
+  private long slice() {
+    long end = System.nanoTime() + SessionScheduler.SLICE_NANOS;
+    while (true) {
+      if (!isRunnable())
+        return -1;
+
+      State state = step.get();
+      if (state != State.RUNNING) {
+        publish(state);
+        return -1;
+      }
+      if (isWanted())
+        publish(state);
+
+      long now = System.nanoTime();
+      if (intervalNanos > 0) {
+        next += intervalNanos;
+        if (next - now > 0)
+          return next - now;
+        next = now; // Fell behind: do not try to catch up in a burst.
+      }
+      if (now - end >= 0)
+        return 0;
+    }
+  }
+
+  private synchronized boolean isRunnable() {
+    return !paused && !stopped;
+  }
+
+  private synchronized boolean isWanted() {
+    return wanted;
+  }
+
+  private synchronized void publish(State state) {
+    latestState = state;
+    fresh = true;
+    wanted = false;
+    finished = state != State.RUNNING;
+    notifyAll();
+  }
+
+  /**
+   * Waits until a generation newer than the last one waited for is published,
+   * or until {@code deadlineNanos} (a {@link System#nanoTime()} value).
+   *
+   * @return false if none was published in time
+   */
+  synchronized boolean await(long deadlineNanos) {
+    wanted = true;
+    try {
+      long remaining;
+      while (!fresh && (remaining = deadlineNanos - System.nanoTime()) > 0)
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!fresh)
+      return false;
+
+    fresh = false;
+    return true;
+  }
+
+  /**
+   * State of the game at the generation last waited for by {@link #await}.
+   */
+  synchronized State getState() {
+    return fresh ? State.RUNNING : latestState;
+  }
+
+  /**
+   * State of the game at the newest generation computed, whether or not it has been shown.
+   */
+  synchronized State getLatestState() {
+    return latestState;
+  }
+
+  synchronized boolean isFinished() {
+    return finished;
+  }
+
+  synchronized void setPaused(boolean paused) {
+    this.paused = paused;
+    if (!paused)
+      schedule(0);
+    notifyAll();
+  }
+
+  /**
+   * Stops stepping and waits for a slice that is running to finish.
+   */
+  synchronized void stop() {
+    stopped = true;
+    // A queued slice never starts; one the executor has just picked up returns
+    // without stepping, as it checks stopped under this lock before it starts.
+    if (pending != null)
+      pending.cancel(false);
+
+    boolean interrupted = false;
+    while (running) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    scheduled = false;
+    if (interrupted)
+      Thread.currentThread().interrupt();
+  }
+}
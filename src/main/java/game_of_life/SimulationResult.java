@@ -0,0 +1,85 @@
+package game_of_life;
+
+import game_of_life.types.State;
+import game_of_life.types.Tribe;
+
+/**
+ * Outcome of a headless run.
+ */
+public class SimulationResult {
+  private final State state;
+  private final Tribe victoriousTribe;
+  private final long generations;
+  private final long cyclePeriod;
+  private final long wallTimeNanos;
+  private final double meanActiveRatio;
+
+  public SimulationResult(State state, Tribe victoriousTribe, long generations, long cyclePeriod, long wallTimeNanos,
+      double meanActiveRatio) {
+    this.state = state;
+    this.victoriousTribe = victoriousTribe;
+    this.generations = generations;
+    this.cyclePeriod = cyclePeriod;
+    this.wallTimeNanos = wallTimeNanos;
+    this.meanActiveRatio = meanActiveRatio;
+  }
+
+  /**
+   * {@link State#RUNNING} if the generation limit was reached first.
+   */
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * The last tribe standing, or {@link Tribe#NONE} unless the state is {@link State#TRIBE_VICTORIOUS}.
+   */
+  public Tribe getVictoriousTribe() {
+    return victoriousTribe;
+  }
+
+  public long getGenerations() {
+    return generations;
+  }
+
+  /**
+   * Generations between repetitions, or 0 unless the state is {@link State#CYCLING}.
+   */
+  public long getCyclePeriod() {
+    return cyclePeriod;
+  }
+
+  public long getWallTimeNanos() {
+    return wallTimeNanos;
+  }
+
+  /**
+   * Average fraction of the board each step recomputed.
+   */
+  public double getMeanActiveRatio() {
+    return meanActiveRatio;
+  }
+
+  @Override
+  public String toString() {
+    String outcome;
+    switch (state) {
+      case CYCLING:
+        outcome = "cycling every " + cyclePeriod + " generations";
+        break;
+      case TRIBE_VICTORIOUS:
+        outcome = victoriousTribe.name() + " victorious";
+        break;
+      case EVERYONE_LOST:
+        outcome = "everyone lost";
+        break;
+      case FAILED:
+        outcome = "failed";
+        break;
+      default:
+        outcome = "still running";
+        break;
+    }
+    return outcome + " after " + generations + " generations in " + (wallTimeNanos / 1_000_000) + " ms";
+  }
+}
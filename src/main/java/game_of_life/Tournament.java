@@ -0,0 +1,231 @@
+package game_of_life;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import game_of_life.types.State;
+import game_of_life.types.Tribe;
+
+/**
+ * Plays every combination of a parameter grid for a range of seeds
+ * headlessly, one board per core at a time, and aggregates the outcomes.
+ */
+public class Tournament {
+  private final Settings base;
+  private final long fromSeed;
+  private final long toSeed;
+  private final double[] fills;
+  private final int[] clusterCounts;
+  private final int workers;
+
+  /**
+   * @param base          settings shared by every board (size, engine, generation limit)
+   * @param fromSeed      first seed, inclusive
+   * @param toSeed        last seed, inclusive
+   * @param fills         fill ratios to try
+   * @param clusterCounts cluster counts to try
+   * @param workers       number of boards played at the same time
+   */
+  public Tournament(Settings base, long fromSeed, long toSeed, double[] fills, int[] clusterCounts, int workers) {
+    this.base = base;
+    this.fromSeed = fromSeed;
+    this.toSeed = toSeed;
+    this.fills = fills;
+    this.clusterCounts = clusterCounts;
+    this.workers = Math.max(1, workers);
+  }
+
+  /**
+   * One played board.
+   */
+  public static class Run {
+    public final long seed;
+    public final double fill;
+    public final int clusters;
+    public final SimulationResult result;
+
+    Run(long seed, double fill, int clusters, SimulationResult result) {
+      this.seed = seed;
+      this.fill = fill;
+      this.clusters = clusters;
+      this.result = result;
+    }
+  }
+
+  /**
+   * Aggregated outcomes of every seed played with one fill ratio and cluster count.
+   */
+  public static class Summary {
+    public final double fill;
+    public final int clusters;
+    private final EnumMap<Tribe, Integer> wins = new EnumMap<>(Tribe.class);
+    private final EnumMap<State, Integer> states = new EnumMap<>(State.class);
+    private final List<Long> generations = new ArrayList<>();
+
+    Summary(double fill, int clusters) {
+      this.fill = fill;
+      this.clusters = clusters;
+    }
+
+    void add(SimulationResult result) {
+      states.merge(result.getState(), 1, Integer::sum);
+      if (result.getState() == State.TRIBE_VICTORIOUS)
+        wins.merge(result.getVictoriousTribe(), 1, Integer::sum);
+      generations.add(result.getGenerations());
+    }
+
+    public int getRuns() {
+      return generations.size();
+    }
+
+    public double winRate(Tribe tribe) {
+      return (double) wins.getOrDefault(tribe, 0) / getRuns();
+    }
+
+    public double stateRate(State state) {
+      return (double) states.getOrDefault(state, 0) / getRuns();
+    }
+
+    /**
+     * Generations-to-end at the given percentile (0-100), nearest rank.
+     */
+    public long generationsPercentile(double percentile) {
+      long[] sorted = generations.stream().mapToLong(Long::longValue).sorted().toArray();
+      int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+      return sorted[Math.min(Math.max(rank - 1, 0), sorted.length - 1)];
+    }
+
+    public double generationsMean() {
+      return generations.stream().mapToLong(Long::longValue).average().orElse(0);
+    }
+  }
+
+  /**
+   * Plays every board and returns their runs in the order of the grid.
+   *
+   * @throws InterruptedException if interrupted while waiting for the boards;
+   *                              the boards still playing are cancelled and
+   *                              no partial results are returned
+   */
+  public List<Run> run() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    List<Future<Run>> futures = new ArrayList<>();
+
+    for (double fill : fills) {
+      for (int clusters : clusterCounts) {
+        for (long seed = fromSeed; seed <= toSeed; seed++) {
+          Settings settings = base.copy();
+          settings.seed = seed;
+          settings.percentageFill = fill;
+          settings.numberOfClusters = clusters;
+          settings.threads = 1;
+
+          long runSeed = seed;
+          futures.add(executor.submit(() -> play(runSeed, fill, clusters, settings)));
+        }
+      }
+    }
+
+    List<Run> runs = new ArrayList<>(futures.size());
+    try {
+      for (Future<Run> future : futures)
+        runs.add(future.get());
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return runs;
+  }
+
+  /**
+   * Plays one board. A board that throws is reported and counted as
+   * {@link State#FAILED}, so one broken board does not end the tournament.
+   */
+  private static Run play(long seed, double fill, int clusters, Settings settings) {
+    try {
+      return new Run(seed, fill, clusters, Game.simulate(settings));
+    } catch (RuntimeException | Error e) {
+      System.err.println("Board with seed " + seed + ", fill " + fill + " and " + clusters + " clusters failed: " + e);
+      return new Run(seed, fill, clusters, new SimulationResult(State.FAILED, Tribe.NONE, 0, 0, 0, 0));
+    }
+  }
+
+  public static List<Summary> summarize(List<Run> runs) {
+    Map<String, Summary> summaries = new LinkedHashMap<>();
+    for (Run run : runs)
+      summaries.computeIfAbsent(run.fill + "/" + run.clusters, key -> new Summary(run.fill, run.clusters))
+          .add(run.result);
+    return new ArrayList<>(summaries.values());
+  }
+
+  /**
+   * Writes one line per fill ratio and cluster count to {@code path}, and one
+   * line per played board next to it, in {@code <name>-runs.csv}.
+   */
+  public static void writeCsv(Path path, List<Run> runs) throws IOException {
+    if (path.getParent() != null)
+      Files.createDirectories(path.getParent());
+
+    try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      List<String> header = new ArrayList<>(Arrays.asList("fill", "clusters", "runs"));
+      for (Tribe tribe : Tribe.getTribes())
+        header.add(tribe.name().toLowerCase() + "_win_rate");
+      header.addAll(Arrays.asList("everyone_lost_rate", "cycling_rate", "running_rate", "failed_rate",
+          "generations_mean", "generations_p50", "generations_p90", "generations_p99", "generations_max"));
+      writer.write(String.join(",", header));
+      writer.newLine();
+
+      for (Summary summary : summarize(runs)) {
+        StringBuilder line = new StringBuilder();
+        line.append(summary.fill).append(',').append(summary.clusters).append(',').append(summary.getRuns());
+        for (Tribe tribe : Tribe.getTribes())
+          line.append(',').append(format(summary.winRate(tribe)));
+        line.append(',').append(format(summary.stateRate(State.EVERYONE_LOST)))
+            .append(',').append(format(summary.stateRate(State.CYCLING)))
+            .append(',').append(format(summary.stateRate(State.RUNNING)))
+            .append(',').append(format(summary.stateRate(State.FAILED)))
+            .append(',').append(format(summary.generationsMean()))
+            .append(',').append(summary.generationsPercentile(50))
+            .append(',').append(summary.generationsPercentile(90))
+            .append(',').append(summary.generationsPercentile(99))
+            .append(',').append(summary.generationsPercentile(100));
+        writer.write(line.toString());
+        writer.newLine();
+      }
+    }
+
+    String name = path.getFileName().toString().replaceFirst("\\.csv$", "");
+    try (BufferedWriter writer = Files.newBufferedWriter(path.resolveSibling(name + "-runs.csv"),
+        StandardCharsets.UTF_8)) {
+      writer.write("seed,fill,clusters,state,victorious_tribe,generations,cycle_period,wall_time_ms");
+      writer.newLine();
+      for (Run run : runs) {
+        SimulationResult result = run.result;
+        writer.write(run.seed + "," + run.fill + "," + run.clusters + "," + result.getState() + ","
+            + result.getVictoriousTribe().name() + "," + result.getGenerations() + "," + result.getCyclePeriod()
+            + "," + result.getWallTimeNanos() / 1_000_000);
+        writer.newLine();
+      }
+    }
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.4f", value);
+  }
+}
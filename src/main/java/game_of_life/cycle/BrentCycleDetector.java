@@ -0,0 +1,44 @@
+package game_of_life.cycle;
+
+/**
+ * Brent's cycle detection: keeps a single saved state, which is moved forward
+ * whenever the distance to it reaches the next power of two. Memory is
+ * constant; a cycle is reported at most about twice its start generation plus
+ * its period after it began, with its exact period.
+ */
+public class BrentCycleDetector implements CycleDetector {
+  private boolean started = false;
+  private long savedHash;
+  private long savedGeneration;
+  private long power = 1;
+  private long distance = 0;
+
+  @Override
+  public long observe(long hash, long generation) {
+    if (!started) {
+      save(hash, generation);
+      started = true;
+      return 0;
+    }
+
+    if (hash == savedHash)
+      return generation - savedGeneration;
+
+    if (++distance == power) {
+      save(hash, generation);
+      power <<= 1;
+    }
+    return 0;
+  }
+
+  private void save(long hash, long generation) {
+    savedHash = hash;
+    savedGeneration = generation;
+    distance = 0;
+  }
+
+  @Override
+  public int size() {
+    return 1;
+  }
+}
@@ -0,0 +1,32 @@
+package game_of_life.cycle;
+
+import game_of_life.Settings;
+
+/**
+ * Decides from the sequence of state hashes whether a board has started repeating itself.
+ */
+public interface CycleDetector {
+  /**
+   * Records the state hash of a generation. Generations must be observed in increasing order.
+   *
+   * @return the cycle period in generations if this state repeats an earlier one, otherwise 0
+   */
+  long observe(long hash, long generation);
+
+  /**
+   * Number of states currently remembered.
+   */
+  int size();
+
+  static CycleDetector create(Settings settings) {
+    switch (settings.cycleDetector) {
+      case WINDOW:
+        return new WindowCycleDetector(settings.historyCapacity);
+      case BRENT:
+        return new BrentCycleDetector();
+      case HISTORY:
+      default:
+        return new HistoryCycleDetector();
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package game_of_life.cycle;
+
+import game_of_life.utils.LongLongMap;
+
+/**
+ * Remembers every state ever seen, so a cycle is reported on its first
+ * repetition. Memory grows by one entry per generation.
+ */
+public class HistoryCycleDetector implements CycleDetector {
+  /** State hash mapped to the generation it was first seen in. */
+  private final LongLongMap visitedStatesMemo = new LongLongMap();
+
+  @Override
+  public long observe(long hash, long generation) {
+    if (visitedStatesMemo.containsKey(hash))
+      return generation - visitedStatesMemo.get(hash, generation);
+
+    visitedStatesMemo.put(hash, generation);
+    return 0;
+  }
+
+  @Override
+  public int size() {
+    return visitedStatesMemo.size();
+  }
+}
@@ -0,0 +1,40 @@
+package game_of_life.cycle;
+
+import game_of_life.utils.LongLongMap;
+
+/**
+ * Remembers only the last {@code capacity} states. A cycle is reported on its
+ * first repetition as long as its period is at most {@code capacity}
+ * generations; longer cycles are not detected.
+ */
+public class WindowCycleDetector implements CycleDetector {
+  private final long[] window;
+  private final LongLongMap generations = new LongLongMap();
+  private int next = 0;
+  private int size = 0;
+
+  public WindowCycleDetector(int capacity) {
+    this.window = new long[Math.max(1, capacity)];
+  }
+
+  @Override
+  public long observe(long hash, long generation) {
+    if (generations.containsKey(hash))
+      return generation - generations.get(hash, generation);
+
+    if (size == window.length)
+      generations.remove(window[next]);
+    else
+      size++;
+
+    window[next] = hash;
+    next = (next + 1) % window.length;
+    generations.put(hash, generation);
+    return 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,173 @@
+package game_of_life.engine;
+
+import game_of_life.types.Tribe;
+
+/**
+ * Stores each generation as one bitplane per tribe plus an occupancy plane,
+ * 64 cells per {@code long}, and steps 64 cells at a time: neighbour counts
+ * are kept as bit-sliced counters built with bitwise adders (SWAR), and the
+ * rules are applied as masks. Only the cells whose fate depends on the
+ * survival coin-flip are visited one by one.
+ */
+public class BitPlaneEngine extends TiledEngine {
+  private static final Tribe[] TRIBES = Tribe.values();
+  private static final int LIVING = Rules.NONE;
+  private static final int OCCUPANCY = LIVING;
+
+  private final int ROWS;
+  private final int COLS;
+  private final int WORDS;
+  private final long LAST_WORD_MASK;
+
+  /** {@code [tribe or OCCUPANCY][row * WORDS + word]}, bit i of a word is column {@code word * 64 + i}. */
+  private long[][] frontPlanes;
+  private long[][] backPlanes;
+
+  public BitPlaneEngine(int rows, int cols) {
+    this.ROWS = rows;
+    this.COLS = cols;
+    this.WORDS = (cols + 63) >>> 6;
+    this.LAST_WORD_MASK = (cols & 63) == 0 ? -1L : (1L << (cols & 63)) - 1;
+
+    frontPlanes = new long[LIVING + 1][ROWS * WORDS];
+    backPlanes = new long[LIVING + 1][ROWS * WORDS];
+  }
+
+  @Override
+  public int getRows() {
+    return ROWS;
+  }
+
+  @Override
+  public int getCols() {
+    return COLS;
+  }
+
+  @Override
+  public Tribe get(int row, int col) {
+    int idx = row * WORDS + (col >>> 6);
+    long bit = 1L << col;
+    for (int tribe = 0; tribe < LIVING; tribe++)
+      if ((frontPlanes[tribe][idx] & bit) != 0)
+        return TRIBES[tribe];
+    return Tribe.NONE;
+  }
+
+  @Override
+  public void set(int row, int col, Tribe tribe) {
+    int idx = row * WORDS + (col >>> 6);
+    long bit = 1L << col;
+    frontCensus.change(row, col, get(row, col).ordinal(), tribe.ordinal());
+
+    for (int plane = 0; plane <= LIVING; plane++)
+      frontPlanes[plane][idx] &= ~bit;
+    if (Tribe.isAlive(tribe)) {
+      frontPlanes[tribe.ordinal()][idx] |= bit;
+      frontPlanes[OCCUPANCY][idx] |= bit;
+    }
+  }
+
+  @Override
+  public void forEachLiving(CellVisitor visitor) {
+    for (int tribe = 0; tribe < LIVING; tribe++) {
+      long[] plane = frontPlanes[tribe];
+      for (int idx = 0; idx < plane.length; idx++) {
+        for (long bits = plane[idx]; bits != 0; bits &= bits - 1)
+          visitor.accept(idx / WORDS, (idx % WORDS) * 64 + Long.numberOfTrailingZeros(bits), TRIBES[tribe]);
+      }
+    }
+  }
+
+  @Override
+  public void swapBuffers() {
+    long[][] temp = frontPlanes;
+    frontPlanes = backPlanes;
+    backPlanes = temp;
+    swapCensus();
+  }
+
+  @Override
+  protected void prepRows(Dice dice, int fromRow, int toRow, Census delta) {
+    long[] neighbors = new long[8];
+    long[] in2or3 = new long[LIVING + 1];
+    long[] is3 = new long[LIVING + 1];
+
+    for (int row = fromRow; row < toRow; row++) {
+      for (int word = 0; word < WORDS; word++) {
+        for (int plane = 0; plane <= LIVING; plane++) {
+          collectNeighbors(frontPlanes[plane], row, word, neighbors);
+
+          // Saturating bit-sliced counter: (a2 a1 a0), with a2 set for 4 or more.
+          long a0 = 0, a1 = 0, a2 = 0;
+          for (long x : neighbors) {
+            long carry0 = a0 & x;
+            a0 ^= x;
+            long carry1 = a1 & carry0;
+            a1 ^= carry0;
+            a2 |= carry1;
+          }
+          in2or3[plane] = ~a2 & a1;
+          is3[plane] = ~a2 & a1 & a0;
+        }
+
+        int idx = row * WORDS + word;
+        long valid = word == WORDS - 1 ? LAST_WORD_MASK : -1L;
+        long occupied = frontPlanes[OCCUPANCY][idx];
+        long empty = ~occupied & valid;
+        long bornBefore = 0;
+        long nextOccupied = 0;
+
+        for (int tribe = 0; tribe < LIVING; tribe++) {
+          long alive = frontPlanes[tribe][idx];
+          long staying = alive & in2or3[OCCUPANCY];
+          long next = staying & in2or3[tribe];
+
+          for (long coin = staying & ~in2or3[tribe]; coin != 0; coin &= coin - 1) {
+            int bit = Long.numberOfTrailingZeros(coin);
+            if (dice.roll(row, word * 64 + bit) <= .5d)
+              next |= 1L << bit;
+          }
+
+          long born = empty & is3[tribe] & ~bornBefore;
+          bornBefore |= born;
+          next |= born;
+
+          backPlanes[tribe][idx] = next;
+          nextOccupied |= next;
+          record(delta, row, word, alive & ~next, tribe, Rules.NONE);
+          record(delta, row, word, next & ~alive, Rules.NONE, tribe);
+        }
+        backPlanes[OCCUPANCY][idx] = nextOccupied;
+      }
+    }
+  }
+
+  private void record(Census delta, int row, int word, long cells, int from, int to) {
+    for (; cells != 0; cells &= cells - 1)
+      delta.change(row, word * 64 + Long.numberOfTrailingZeros(cells), from, to);
+  }
+
+  /**
+   * Fills {@code neighbors} with the eight neighbour masks of the word: bit i
+   * of each mask is the corresponding neighbour of column {@code word * 64 + i}.
+   */
+  private void collectNeighbors(long[] plane, int row, int word, long[] neighbors) {
+    int n = 0;
+    for (int r = row - 1; r <= row + 1; r++) {
+      long center = word(plane, r, word);
+      long west = (center << 1) | (word(plane, r, word - 1) >>> 63);
+      long east = (center >>> 1) | (word(plane, r, word + 1) << 63);
+
+      neighbors[n++] = west;
+      neighbors[n++] = east;
+      if (r != row)
+        neighbors[n++] = center;
+    }
+  }
+
+  private long word(long[] plane, int row, int word) {
+    if (row < 0 || row >= ROWS || word < 0 || word >= WORDS)
+      return 0;
+    return plane[row * WORDS + word];
+  }
+}
@@ -0,0 +1,81 @@
+package game_of_life.engine;
+
+import java.util.Arrays;
+
+import game_of_life.types.Tribe;
+
+/**
+ * Population per tribe and a 64-bit Zobrist hash of one generation.
+ *
+ * The hash is the XOR of a key per living cell, derived from the cell
+ * position and tribe, so engines can keep it up to date by applying only the
+ * cells that changed during a step.
+ */
+public final class Census {
+  private static final byte NONE = Rules.NONE;
+  private static final long ZOBRIST_SEED = 0x2545F4914F6CDD1DL;
+
+  private long hash;
+  private final long[] population = new long[NONE];
+
+  public static long key(int row, int col, int tribe) {
+    long cell = ((long) row << 32) | (col & 0xFFFFFFFFL);
+    return Dice.mix(Dice.mix(cell ^ ZOBRIST_SEED) + tribe + 1);
+  }
+
+  public long getHash() {
+    return hash;
+  }
+
+  public long getPopulation(Tribe tribe) {
+    return population[tribe.ordinal()];
+  }
+
+  public long getPopulation() {
+    long total = 0;
+    for (long count : population)
+      total += count;
+    return total;
+  }
+
+  /**
+   * Records that the cell went from tribe ordinal {@code from} to {@code to}.
+   */
+  public void change(int row, int col, int from, int to) {
+    if (from != NONE) {
+      hash ^= key(row, col, from);
+      population[from]--;
+    }
+    if (to != NONE) {
+      hash ^= key(row, col, to);
+      population[to]++;
+    }
+  }
+
+  /**
+   * Applies the changes recorded in {@code delta}. Safe to call from several tiles at once.
+   */
+  public synchronized void merge(Census delta) {
+    hash ^= delta.hash;
+    for (int tribe = 0; tribe < NONE; tribe++)
+      population[tribe] += delta.population[tribe];
+  }
+
+  public void copyFrom(Census other) {
+    hash = other.hash;
+    System.arraycopy(other.population, 0, population, 0, NONE);
+  }
+
+  /**
+   * Restores a census saved with {@link #getHash()} and {@link #getPopulation(Tribe)}.
+   */
+  void restore(long hash, long[] population) {
+    this.hash = hash;
+    System.arraycopy(population, 0, this.population, 0, NONE);
+  }
+
+  public void clear() {
+    hash = 0;
+    Arrays.fill(population, 0);
+  }
+}
@@ -0,0 +1,47 @@
+package game_of_life.engine;
+
+/**
+ * Source of the 50% survival coin-flip for one generation.
+ *
+ * Every cell gets its own roll derived from the board seed, the generation
+ * and the cell position, so the result does not depend on the order in which
+ * cells, tiles or threads are processed.
+ */
+public final class Dice {
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  /**
+   * Always rolls 0, so every coin-flip lets the cell survive. Used by engines
+   * that need the rules to be deterministic.
+   */
+  public static final Dice ALWAYS_SURVIVE = new Dice();
+
+  private final long key;
+  private final boolean fixed;
+
+  public Dice(long seed, long generation) {
+    this.key = mix(seed + generation * GOLDEN_GAMMA);
+    this.fixed = false;
+  }
+
+  private Dice() {
+    this.key = 0;
+    this.fixed = true;
+  }
+
+  /**
+   * Returns a uniformly distributed value in {@code [0, 1)} for the given cell.
+   */
+  public double roll(int row, int col) {
+    if (fixed)
+      return 0;
+    long z = mix(key ^ (((long) row << 32) | (col & 0xFFFFFFFFL)));
+    return (z >>> 11) * 0x1.0p-53;
+  }
+
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
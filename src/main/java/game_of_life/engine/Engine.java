@@ -0,0 +1,94 @@
+package game_of_life.engine;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import game_of_life.Settings;
+import game_of_life.types.Tribe;
+
+/**
+ * Holds the two generation buffers of a board and knows how to compute the
+ * next generation from the current one.
+ */
+public interface Engine extends Grid {
+  /**
+   * Reads a cell of the current (front) generation.
+   */
+  @Override
+  Tribe get(int row, int col);
+
+  /**
+   * Writes a cell of the current (front) generation. Used while seeding the board.
+   */
+  void set(int row, int col, Tribe tribe);
+
+  /**
+   * Computes the next generation into the back buffer. Reads only the front buffer.
+   * The pool may be {@code null}, in which case the step runs on the calling thread.
+   */
+  void prepNextState(Dice dice, ForkJoinPool pool);
+
+  void swapBuffers();
+
+  /**
+   * How many generations one {@link #prepNextState} and {@link #swapBuffers} advance.
+   */
+  default long getGenerationsPerStep() {
+    return 1;
+  }
+
+  /**
+   * Fraction of the board the last {@link #prepNextState} actually recomputed.
+   */
+  default double getActiveRatio() {
+    return 1;
+  }
+
+  /**
+   * Whether the cells live outside the heap, in which case they are not
+   * copied onto the heap to be saved, journaled or recorded, as the copy may
+   * not fit there.
+   */
+  default boolean isOffHeap() {
+    return false;
+  }
+
+  /**
+   * Flushes the current generation of a file-backed engine to its file so it
+   * can be reopened from there.
+   *
+   * @return false if the engine keeps no file
+   */
+  default boolean checkpoint() throws IOException {
+    return false;
+  }
+
+  /**
+   * Releases files or other resources held outside the heap.
+   */
+  default void close() {
+  }
+
+  static Engine create(Settings settings) {
+    int rows = settings.rows;
+    int cols = settings.cols;
+
+    switch (settings.engine) {
+      case REFERENCE:
+        return new ReferenceEngine(rows, cols);
+      case SPARSE:
+        return new SparseEngine(rows, cols);
+      case HASHLIFE:
+        return new HashLifeEngine(rows, cols, settings.jump, settings.cacheNodes);
+      case BITPLANE:
+        return new BitPlaneEngine(rows, cols);
+      case VECTOR:
+        return new VectorEngine(rows, cols);
+      case MAPPED:
+        return MappedEngine.create(settings);
+      case PRIMITIVE:
+      default:
+        return new PrimitiveEngine(rows, cols, settings.chunkSize);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package game_of_life.engine;
+
+import game_of_life.types.Tribe;
+
+/**
+ * Read-only view of one generation of a board.
+ */
+public interface Grid {
+  /** Most cells {@link #copyTo} can copy: the longest array a JVM allocates. */
+  int MAX_CELLS = Integer.MAX_VALUE - 8;
+
+  interface CellVisitor {
+    void accept(int row, int col, Tribe tribe);
+  }
+
+  int getRows();
+
+  int getCols();
+
+  Tribe get(int row, int col);
+
+  /**
+   * Number of cells of a {@code rows x cols} board, which is the length of
+   * the array {@link #copyTo} fills.
+   *
+   * @throws IllegalArgumentException if there are more than {@link #MAX_CELLS}
+   */
+  static int cellCount(int rows, int cols) {
+    if (!fitsInArray(rows, cols))
+      throw new IllegalArgumentException("A board of " + rows + "x" + cols
+          + " cells does not fit in one array; only the sparse, hashlife and mapped engines run it, without"
+          + " snapshots, autosaves, a journal or a recording");
+    return rows * cols;
+  }
+
+  /**
+   * Whether a {@code rows x cols} board can be copied into one array.
+   */
+  static boolean fitsInArray(int rows, int cols) {
+    return (long) rows * cols <= MAX_CELLS;
+  }
+
+  /**
+   * Copies the cells into {@code cells} as row-major tribe ordinals.
+   */
+  default void copyTo(byte[] cells) {
+    int cols = getCols();
+    for (int row = 0; row < getRows(); row++)
+      for (int col = 0; col < cols; col++)
+        cells[row * cols + col] = (byte) get(row, col).ordinal();
+  }
+
+  /**
+   * Visits every living cell. The order is unspecified.
+   */
+  default void forEachLiving(CellVisitor visitor) {
+    for (int row = 0; row < getRows(); row++) {
+      for (int col = 0; col < getCols(); col++) {
+        Tribe tribe = get(row, col);
+        if (Tribe.isAlive(tribe))
+          visitor.accept(row, col, tribe);
+      }
+    }
+  }
+
+  /**
+   * Population and Zobrist hash of this generation. Computed from the living
+   * cells unless the implementation keeps it up to date.
+   */
+  default Census getCensus() {
+    Census census = new Census();
+    forEachLiving((row, col, tribe) -> census.change(row, col, Tribe.NONE.ordinal(), tribe.ordinal()));
+    return census;
+  }
+}
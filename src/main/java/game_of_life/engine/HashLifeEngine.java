@@ -0,0 +1,367 @@
+package game_of_life.engine;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import game_of_life.types.Tribe;
+
+/**
+ * HashLife: the board is a quadtree of canonical (deduplicated) nodes, and
+ * each node caches the result of advancing its centre, so repeated patterns
+ * in space and time are computed once.
+ *
+ * Memoization needs deterministic rules, so this engine ignores the dice and
+ * always lets the survival coin-flip succeed ({@link Dice#ALWAYS_SURVIVE}).
+ * Cells outside the board are walls, which never change and never count as
+ * living neighbours, so the bounded board behaves exactly like the other
+ * engines while still allowing jumps of {@code 2^jump} generations per step.
+ */
+public class HashLifeEngine implements Engine {
+  private static final Tribe[] TRIBES = Tribe.values();
+  private static final byte NONE = Rules.NONE;
+  private static final byte WALL = (byte) (NONE + 1);
+  private static final Node[] LEAVES = new Node[WALL + 1];
+
+  static {
+    for (byte state = 0; state <= WALL; state++)
+      LEAVES[state] = new Node(state);
+  }
+
+  private final int ROWS;
+  private final int COLS;
+  private final int JUMP;
+  private final int LEVEL;
+  private final int MAX_NODES;
+
+  private Node root;
+  private Node backRoot;
+  private Map<Node, Node> cache;
+  private Node[] walls;
+  private Census census;
+
+  static final class Node {
+    final int level;
+    final byte state;
+    final Node nw;
+    final Node ne;
+    final Node sw;
+    final Node se;
+    final long population;
+    final int hash;
+    Node result;
+
+    private Node(byte state) {
+      this.level = 0;
+      this.state = state;
+      this.nw = this.ne = this.sw = this.se = null;
+      this.population = state < NONE ? 1 : 0;
+      this.hash = state + 1;
+    }
+
+    private Node(Node nw, Node ne, Node sw, Node se) {
+      this.level = nw.level + 1;
+      this.state = NONE;
+      this.nw = nw;
+      this.ne = ne;
+      this.sw = sw;
+      this.se = se;
+      this.population = nw.population + ne.population + sw.population + se.population;
+      this.hash = ((nw.hash * 31 + ne.hash) * 31 + sw.hash) * 31 + se.hash + level;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Node))
+        return false;
+      Node node = (Node) other;
+      if (level == 0)
+        return node.level == 0 && state == node.state;
+      return level == node.level && nw == node.nw && ne == node.ne && sw == node.sw && se == node.se;
+    }
+  }
+
+  /**
+   * @param jump     each step advances {@code 2^jump} generations
+   * @param maxNodes how many canonical nodes (and their cached results) to keep before evicting the least recently used
+   */
+  public HashLifeEngine(int rows, int cols, int jump, int maxNodes) {
+    this.ROWS = rows;
+    this.COLS = cols;
+    this.JUMP = Math.max(jump, 0);
+    this.MAX_NODES = maxNodes;
+
+    int level = 2;
+    while ((1 << level) < Math.max(rows, cols) || level - 1 < JUMP)
+      level++;
+    this.LEVEL = level;
+
+    root = build(LEVEL, 0, 0);
+  }
+
+  @Override
+  public int getRows() {
+    return ROWS;
+  }
+
+  @Override
+  public int getCols() {
+    return COLS;
+  }
+
+  @Override
+  public long getGenerationsPerStep() {
+    return 1L << JUMP;
+  }
+
+  public int getCacheSize() {
+    return cache().size();
+  }
+
+  @Override
+  public Tribe get(int row, int col) {
+    Node node = root;
+    for (int level = LEVEL; level > 0; level--) {
+      int half = 1 << (level - 1);
+      boolean south = row >= half;
+      boolean east = col >= half;
+      node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+      if (south)
+        row -= half;
+      if (east)
+        col -= half;
+    }
+    return TRIBES[node.state];
+  }
+
+  @Override
+  public void set(int row, int col, Tribe tribe) {
+    root = set(root, row, col, (byte) tribe.ordinal());
+    census = null;
+  }
+
+  /**
+   * Recomputed from the living cells once per generation, since a step does
+   * not enumerate the cells that changed.
+   */
+  @Override
+  public Census getCensus() {
+    if (census == null)
+      census = Engine.super.getCensus();
+    return census;
+  }
+
+  private Node set(Node node, int row, int col, byte state) {
+    if (node.level == 0)
+      return LEAVES[state];
+
+    int half = 1 << (node.level - 1);
+    if (row < half && col < half)
+      return join(set(node.nw, row, col, state), node.ne, node.sw, node.se);
+    if (row < half)
+      return join(node.nw, set(node.ne, row, col - half, state), node.sw, node.se);
+    if (col < half)
+      return join(node.nw, node.ne, set(node.sw, row - half, col, state), node.se);
+    return join(node.nw, node.ne, node.sw, set(node.se, row - half, col - half, state));
+  }
+
+  @Override
+  public void forEachLiving(CellVisitor visitor) {
+    forEachLiving(root, 0, 0, visitor);
+  }
+
+  private void forEachLiving(Node node, int row, int col, CellVisitor visitor) {
+    if (node.population == 0)
+      return;
+    if (node.level == 0) {
+      visitor.accept(row, col, TRIBES[node.state]);
+      return;
+    }
+
+    int half = 1 << (node.level - 1);
+    forEachLiving(node.nw, row, col, visitor);
+    forEachLiving(node.ne, row, col + half, visitor);
+    forEachLiving(node.sw, row + half, col, visitor);
+    forEachLiving(node.se, row + half, col + half, visitor);
+  }
+
+  @Override
+  public void copyTo(byte[] cells) {
+    Arrays.fill(cells, NONE);
+    forEachLiving((row, col, tribe) -> cells[row * COLS + col] = (byte) tribe.ordinal());
+  }
+
+  @Override
+  public void swapBuffers() {
+    Node temp = root;
+    root = backRoot;
+    backRoot = temp;
+    census = null;
+  }
+
+  /**
+   * Runs on the calling thread; the dice and the pool are not used.
+   */
+  @Override
+  public void prepNextState(Dice dice, ForkJoinPool pool) {
+    Node wall = wall(LEVEL - 1);
+    Node expanded = join(
+        join(wall, wall, wall, root.nw),
+        join(wall, wall, root.ne, wall),
+        join(wall, root.sw, wall, wall),
+        join(root.se, wall, wall, wall));
+    backRoot = nextGeneration(expanded);
+  }
+
+  /**
+   * Returns the centre of the node, half its size, advanced by
+   * {@code 2^min(JUMP, level - 2)} generations.
+   */
+  private Node nextGeneration(Node node) {
+    if (node.result != null)
+      return node.result;
+
+    Node result;
+    if (node.level == 2) {
+      result = slowStep(node);
+    } else {
+      Node n00 = node.nw;
+      Node n01 = horizontal(node.nw, node.ne);
+      Node n02 = node.ne;
+      Node n10 = vertical(node.nw, node.sw);
+      Node n11 = center(node);
+      Node n12 = vertical(node.ne, node.se);
+      Node n20 = node.sw;
+      Node n21 = horizontal(node.sw, node.se);
+      Node n22 = node.se;
+
+      boolean fullSpeed = JUMP >= node.level - 2;
+      Node a00 = fullSpeed ? nextGeneration(n00) : center(n00);
+      Node a01 = fullSpeed ? nextGeneration(n01) : center(n01);
+      Node a02 = fullSpeed ? nextGeneration(n02) : center(n02);
+      Node a10 = fullSpeed ? nextGeneration(n10) : center(n10);
+      Node a11 = fullSpeed ? nextGeneration(n11) : center(n11);
+      Node a12 = fullSpeed ? nextGeneration(n12) : center(n12);
+      Node a20 = fullSpeed ? nextGeneration(n20) : center(n20);
+      Node a21 = fullSpeed ? nextGeneration(n21) : center(n21);
+      Node a22 = fullSpeed ? nextGeneration(n22) : center(n22);
+
+      result = join(
+          nextGeneration(join(a00, a01, a10, a11)),
+          nextGeneration(join(a01, a02, a11, a12)),
+          nextGeneration(join(a10, a11, a20, a21)),
+          nextGeneration(join(a11, a12, a21, a22)));
+    }
+
+    node.result = result;
+    return result;
+  }
+
+  /**
+   * Advances the centre 2x2 of a 4x4 node by one generation, cell by cell.
+   */
+  private Node slowStep(Node node) {
+    byte[][] cells = new byte[4][4];
+    Node[] quadrants = { node.nw, node.ne, node.sw, node.se };
+    for (int q = 0; q < 4; q++) {
+      Node quadrant = quadrants[q];
+      int row = (q / 2) * 2;
+      int col = (q % 2) * 2;
+      cells[row][col] = quadrant.nw.state;
+      cells[row][col + 1] = quadrant.ne.state;
+      cells[row + 1][col] = quadrant.sw.state;
+      cells[row + 1][col + 1] = quadrant.se.state;
+    }
+
+    int[] counts = new int[WALL + 1];
+    Node[] next = new Node[4];
+    for (int i = 0; i < 4; i++) {
+      int row = 1 + i / 2;
+      int col = 1 + i % 2;
+      byte current = cells[row][col];
+      if (current == WALL) {
+        next[i] = LEAVES[WALL];
+        continue;
+      }
+
+      Arrays.fill(counts, 0);
+      for (int r = row - 1; r <= row + 1; r++)
+        for (int c = col - 1; c <= col + 1; c++)
+          if (r != row || c != col)
+            counts[cells[r][c]]++;
+      next[i] = LEAVES[Rules.nextTribe(current, counts, Dice.ALWAYS_SURVIVE, row, col)];
+    }
+
+    return join(next[0], next[1], next[2], next[3]);
+  }
+
+  private Node center(Node node) {
+    return join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+  }
+
+  private Node horizontal(Node west, Node east) {
+    return join(west.ne, east.nw, west.se, east.sw);
+  }
+
+  private Node vertical(Node north, Node south) {
+    return join(north.sw, north.se, south.nw, south.ne);
+  }
+
+  /**
+   * Builds the node covering {@code 2^level} cells square from (row, col):
+   * empty inside the board, walls outside.
+   */
+  private Node build(int level, int row, int col) {
+    int size = 1 << level;
+    if (row >= ROWS || col >= COLS)
+      return wall(level);
+    if (level == 0)
+      return LEAVES[NONE];
+
+    int half = size >> 1;
+    return join(
+        build(level - 1, row, col),
+        build(level - 1, row, col + half),
+        build(level - 1, row + half, col),
+        build(level - 1, row + half, col + half));
+  }
+
+  private Node wall(int level) {
+    if (walls == null)
+      walls = new Node[LEVEL + 1];
+    if (walls[level] == null) {
+      Node child = level == 0 ? null : wall(level - 1);
+      walls[level] = level == 0 ? LEAVES[WALL] : join(child, child, child, child);
+    }
+    return walls[level];
+  }
+
+  private Node join(Node nw, Node ne, Node sw, Node se) {
+    Node candidate = new Node(nw, ne, sw, se);
+    Node canonical = cache().putIfAbsent(candidate, candidate);
+    return canonical != null ? canonical : candidate;
+  }
+
+  private Map<Node, Node> cache() {
+    if (cache == null) {
+      cache = new LinkedHashMap<Node, Node>(1024, .75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Node, Node> eldest) {
+          if (size() <= MAX_NODES)
+            return false;
+          eldest.getKey().result = null;
+          return true;
+        }
+      };
+    }
+    return cache;
+  }
+}
@@ -0,0 +1,308 @@
+package game_of_life.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import game_of_life.Settings;
+import game_of_life.types.Tribe;
+
+/**
+ * Keeps both generation buffers in a memory-mapped file instead of the heap,
+ * so the board size is bounded by disk and page cache rather than by -Xmx.
+ *
+ * <pre>
+ * header ({@link #HEADER} bytes): magic "GOLB", u16 version, u8 front buffer,
+ *   i64 generation, i64 hash, i64 population per tribe, the settings
+ * buffer 0: rows x cols bytes, row-major
+ * buffer 1: rows x cols bytes, row-major
+ * </pre>
+ *
+ * A cell is stored as its tribe ordinal XOR {@link Rules#NONE}, so a new
+ * zero-filled (sparse) file is an empty board. Each buffer is mapped in
+ * segments of whole rows of at most {@link #SEGMENT_BYTES}. The header is
+ * updated on every step, so the file is always a checkpoint of the current
+ * generation; {@link #checkpoint()} forces it to disk, and {@link #open(Path)}
+ * resumes from it without copying any cells.
+ *
+ * Rows are stepped through a {@link RowKernel} on a three-row window copied
+ * out of the mapping and slid down the rows, so every row is read once.
+ */
+public class MappedEngine extends TiledEngine {
+  private static final byte[] MAGIC = "GOLB".getBytes(StandardCharsets.US_ASCII);
+  private static final int VERSION = 2;
+  public static final int HEADER = 4096;
+  private static final int SEGMENT_BYTES = 1 << 30;
+
+  private static final Tribe[] TRIBES = Tribe.values();
+  private static final byte NONE = Rules.NONE;
+
+  private final int ROWS;
+  private final int COLS;
+  private final int SEGMENT_ROWS;
+  private final Settings settings;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final MappedByteBuffer header;
+  /** {@code [buffer][segment]} */
+  private final MappedByteBuffer[][] buffers;
+  private int front;
+  private long generation;
+
+  private RowKernel kernel;
+
+  private MappedEngine(Path path, FileChannel channel, Settings settings) throws IOException {
+    this.ROWS = settings.rows;
+    this.COLS = settings.cols;
+    this.SEGMENT_ROWS = Math.max(SEGMENT_BYTES / Math.max(COLS, 1), 1);
+    this.settings = settings.copy();
+    this.path = path;
+    this.channel = channel;
+
+    long bufferBytes = (long) ROWS * COLS;
+    header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+    buffers = new MappedByteBuffer[2][(ROWS + SEGMENT_ROWS - 1) / SEGMENT_ROWS];
+    for (int buffer = 0; buffer < 2; buffer++) {
+      for (int segment = 0; segment < buffers[buffer].length; segment++) {
+        int fromRow = segment * SEGMENT_ROWS;
+        int rows = Math.min(SEGMENT_ROWS, ROWS - fromRow);
+        long offset = HEADER + buffer * bufferBytes + (long) fromRow * COLS;
+        buffers[buffer][segment] = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) rows * COLS);
+      }
+    }
+  }
+
+  /**
+   * Creates an empty board in {@code settings.boardFile}, or in a temporary
+   * file under ./data that is deleted on exit. An existing board file is
+   * never overwritten; reopen it with {@link #open(Path)} instead.
+   */
+  public static MappedEngine create(Settings settings) {
+    try {
+      Path path;
+      StandardOpenOption create;
+      if (settings.boardFile != null) {
+        path = Paths.get(settings.boardFile);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        create = StandardOpenOption.CREATE_NEW;
+      } else {
+        Path directory = Files.createDirectories(Paths.get("./data"));
+        path = Files.createTempFile(directory, "board-", ".board");
+        path.toFile().deleteOnExit();
+        create = StandardOpenOption.CREATE;
+      }
+
+      FileChannel channel = FileChannel.open(path, create, StandardOpenOption.READ, StandardOpenOption.WRITE,
+          StandardOpenOption.SPARSE);
+      MappedEngine engine = new MappedEngine(path, channel, settings);
+      engine.writeHeader();
+      return engine;
+    } catch (FileAlreadyExistsException e) {
+      throw new UncheckedIOException("Board file already exists: " + settings.boardFile, e);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot create the board file", e);
+    }
+  }
+
+  /**
+   * Reopens a board file at the generation it was last stepped to.
+   */
+  public static MappedEngine open(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER);
+      channel.read(buffer, 0);
+      buffer.flip();
+
+      byte[] magic = new byte[MAGIC.length];
+      buffer.get(magic);
+      if (!Arrays.equals(magic, MAGIC))
+        throw new IOException("Not a board file: " + path);
+      int version = buffer.getShort() & 0xFFFF;
+      if (version > VERSION)
+        throw new IOException("Unsupported board file version " + version + ": " + path);
+      int front = buffer.get();
+      long generation = buffer.getLong();
+      long hash = buffer.getLong();
+      long[] population = new long[NONE];
+      for (int tribe = 0; tribe < NONE; tribe++)
+        population[tribe] = buffer.getLong();
+      Settings settings = Settings.read(buffer, version);
+      settings.boardFile = path.toString();
+
+      if (channel.size() < HEADER + 2L * settings.rows * settings.cols)
+        throw new IOException("Truncated board file: " + path);
+
+      MappedEngine engine = new MappedEngine(path, channel, settings);
+      engine.front = front;
+      engine.generation = generation;
+      engine.frontCensus.restore(hash, population);
+      return engine;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e instanceof IOException ? (IOException) e : new IOException("Corrupt board file: " + path, e);
+    }
+  }
+
+  private void writeHeader() {
+    ByteBuffer buffer = header.duplicate();
+    buffer.clear();
+    buffer.put(MAGIC);
+    buffer.putShort((short) VERSION);
+    buffer.put((byte) front);
+    buffer.putLong(generation);
+    buffer.putLong(frontCensus.getHash());
+    for (int tribe = 0; tribe < NONE; tribe++)
+      buffer.putLong(frontCensus.getPopulation(TRIBES[tribe]));
+    settings.write(buffer);
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public Settings getSettings() {
+    return settings.copy();
+  }
+
+  /**
+   * Generations stepped since the board file was created.
+   */
+  public long getGeneration() {
+    return generation;
+  }
+
+  @Override
+  public boolean isOffHeap() {
+    return true;
+  }
+
+  @Override
+  public boolean checkpoint() throws IOException {
+    writeHeader();
+    for (MappedByteBuffer[] segments : buffers)
+      for (MappedByteBuffer segment : segments)
+        segment.force();
+    header.force();
+    return true;
+  }
+
+  @Override
+  public void close() {
+    try {
+      checkpoint();
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot close the board file", e);
+    }
+  }
+
+  @Override
+  public int getRows() {
+    return ROWS;
+  }
+
+  @Override
+  public int getCols() {
+    return COLS;
+  }
+
+  private MappedByteBuffer segment(int buffer, int row) {
+    return buffers[buffer][row / SEGMENT_ROWS];
+  }
+
+  private int offset(int row, int col) {
+    return (row % SEGMENT_ROWS) * COLS + col;
+  }
+
+  @Override
+  public Tribe get(int row, int col) {
+    return TRIBES[segment(front, row).get(offset(row, col)) ^ NONE];
+  }
+
+  @Override
+  public void set(int row, int col, Tribe tribe) {
+    int offset = offset(row, col);
+    MappedByteBuffer segment = segment(front, row);
+    frontCensus.change(row, col, segment.get(offset) ^ NONE, tribe.ordinal());
+    segment.put(offset, (byte) (tribe.ordinal() ^ NONE));
+  }
+
+  @Override
+  public void copyTo(byte[] cells) {
+    for (int row = 0; row < ROWS; row++)
+      readRow(front, row, cells, row * COLS);
+  }
+
+  /**
+   * Copies a row of the given buffer into {@code cells} at {@code at} as tribe ordinals.
+   */
+  private void readRow(int buffer, int row, byte[] cells, int at) {
+    segment(buffer, row).get(offset(row, 0), cells, at, COLS);
+    for (int i = at; i < at + COLS; i++)
+      cells[i] ^= NONE;
+  }
+
+  @Override
+  public void swapBuffers() {
+    front ^= 1;
+    generation++;
+    swapCensus();
+    writeHeader();
+  }
+
+  private RowKernel kernel() {
+    if (kernel == null)
+      kernel = RowKernel.create();
+    return kernel;
+  }
+
+  @Override
+  protected void prepRows(Dice dice, int fromRow, int toRow, Census delta) {
+    if (fromRow >= toRow)
+      return;
+    RowKernel kernel = kernel();
+    int back = front ^ 1;
+    int stride = COLS + 2;
+    // Rows above, at and below the stepped row, with a border of empty cells.
+    byte[] window = new byte[3 * stride];
+    byte[] next = new byte[3 * stride];
+    byte[] row = new byte[COLS];
+
+    Arrays.fill(window, NONE);
+    if (fromRow > 0)
+      readRow(front, fromRow - 1, window, 1);
+    readRow(front, fromRow, window, stride + 1);
+    for (int r = fromRow; r < toRow; r++) {
+      if (r > fromRow)
+        System.arraycopy(window, stride, window, 0, 2 * stride);
+      if (r + 1 < ROWS)
+        readRow(front, r + 1, window, 2 * stride + 1);
+      else
+        Arrays.fill(window, 2 * stride, 3 * stride, NONE);
+
+      kernel.step(window, stride, stride + 1, stride + 1 + COLS, next);
+
+      for (int col = 0; col < COLS; col++) {
+        byte current = window[stride + 1 + col];
+        byte cell = next[stride + 1 + col];
+        if (cell == RowKernel.COIN)
+          cell = dice.roll(r, col) <= .5d ? current : NONE;
+        if (cell != current)
+          delta.change(r, col, current, cell);
+        row[col] = (byte) (cell ^ NONE);
+      }
+      segment(back, r).put(offset(r, 0), row);
+    }
+  }
+}
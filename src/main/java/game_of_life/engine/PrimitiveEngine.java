@@ -0,0 +1,183 @@
+package game_of_life.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import game_of_life.types.Tribe;
+
+/**
+ * Stores both generations as flat {@code byte[]} arrays of tribe ordinals
+ * (row-major) and counts neighbours per tribe without allocating per cell.
+ *
+ * The board is also cut into square chunks. A chunk is recomputed only if it
+ * or one of its eight neighbours changed in the last step, or if one of its
+ * cells depended on the survival coin-flip; otherwise its cells cannot
+ * change, and the back buffer already holds them.
+ */
+public class PrimitiveEngine extends TiledEngine {
+  private static final Tribe[] TRIBES = Tribe.values();
+  private static final byte NONE = Rules.NONE;
+
+  private final int ROWS;
+  private final int COLS;
+
+  private final int CHUNK;
+  private final int CHUNK_ROWS;
+  private final int CHUNK_COLS;
+
+  private byte[] frontBuffer;
+  private byte[] backBuffer;
+
+  /** Chunks that changed (or rolled the dice) while computing the front buffer. */
+  private boolean[] changedChunks;
+  /** Chunks that changed while computing the back buffer. */
+  private boolean[] nextChangedChunks;
+  /** Chunks recomputed by the current step: the changed chunks and their neighbours. */
+  private boolean[] activeChunks;
+  private int activeChunkCount;
+
+  public PrimitiveEngine(int rows, int cols) {
+    this(rows, cols, 0);
+  }
+
+  /**
+   * @param chunkSize side of the square chunks whose stepping is skipped when
+   *                  nothing around them changes; 0 treats the board as one chunk
+   */
+  public PrimitiveEngine(int rows, int cols, int chunkSize) {
+    this.ROWS = rows;
+    this.COLS = cols;
+    this.CHUNK = chunkSize > 0 ? chunkSize : Math.max(Math.max(rows, cols), 1);
+    this.CHUNK_ROWS = (rows + CHUNK - 1) / CHUNK;
+    this.CHUNK_COLS = (cols + CHUNK - 1) / CHUNK;
+
+    frontBuffer = emptyBuffer();
+    backBuffer = emptyBuffer();
+
+    changedChunks = new boolean[CHUNK_ROWS * CHUNK_COLS];
+    nextChangedChunks = new boolean[CHUNK_ROWS * CHUNK_COLS];
+    activeChunks = new boolean[CHUNK_ROWS * CHUNK_COLS];
+    Arrays.fill(changedChunks, true);
+  }
+
+  public byte[] emptyBuffer() {
+    byte[] buffer = new byte[Grid.cellCount(ROWS, COLS)];
+    Arrays.fill(buffer, NONE);
+    return buffer;
+  }
+
+  @Override
+  public int getRows() {
+    return ROWS;
+  }
+
+  @Override
+  public int getCols() {
+    return COLS;
+  }
+
+  @Override
+  public Tribe get(int row, int col) {
+    return TRIBES[frontBuffer[row * COLS + col]];
+  }
+
+  @Override
+  public void set(int row, int col, Tribe tribe) {
+    int idx = row * COLS + col;
+    frontCensus.change(row, col, frontBuffer[idx], tribe.ordinal());
+    frontBuffer[idx] = (byte) tribe.ordinal();
+    changedChunks[(row / CHUNK) * CHUNK_COLS + col / CHUNK] = true;
+  }
+
+  @Override
+  public double getActiveRatio() {
+    return (double) activeChunkCount / activeChunks.length;
+  }
+
+  @Override
+  public void copyTo(byte[] cells) {
+    System.arraycopy(frontBuffer, 0, cells, 0, frontBuffer.length);
+  }
+
+  @Override
+  public void swapBuffers() {
+    byte[] temp = frontBuffer;
+    frontBuffer = backBuffer;
+    backBuffer = temp;
+    swapCensus();
+
+    boolean[] chunks = changedChunks;
+    changedChunks = nextChangedChunks;
+    nextChangedChunks = chunks;
+  }
+
+  @Override
+  public void prepNextState(Dice dice, ForkJoinPool pool) {
+    activeChunkCount = 0;
+    for (int chunkRow = 0; chunkRow < CHUNK_ROWS; chunkRow++) {
+      for (int chunkCol = 0; chunkCol < CHUNK_COLS; chunkCol++) {
+        boolean active = false;
+        for (int r = Math.max(chunkRow - 1, 0); r <= Math.min(chunkRow + 1, CHUNK_ROWS - 1) && !active; r++)
+          for (int c = Math.max(chunkCol - 1, 0); c <= Math.min(chunkCol + 1, CHUNK_COLS - 1) && !active; c++)
+            active = changedChunks[r * CHUNK_COLS + c];
+
+        activeChunks[chunkRow * CHUNK_COLS + chunkCol] = active;
+        if (active)
+          activeChunkCount++;
+      }
+    }
+    Arrays.fill(nextChangedChunks, false);
+
+    super.prepNextState(dice, pool);
+  }
+
+  @Override
+  protected void prepRows(Dice dice, int fromRow, int toRow, Census delta) {
+    int[] counts = new int[TRIBES.length];
+
+    for (int row = fromRow; row < toRow; row++) {
+      int chunkOffset = (row / CHUNK) * CHUNK_COLS;
+
+      for (int chunkCol = 0; chunkCol < CHUNK_COLS; chunkCol++) {
+        int chunk = chunkOffset + chunkCol;
+        if (!activeChunks[chunk])
+          continue;
+
+        boolean changed = false;
+        for (int col = chunkCol * CHUNK; col < Math.min((chunkCol + 1) * CHUNK, COLS); col++) {
+          countTribeNeighbors(row, col, counts);
+          int idx = row * COLS + col;
+          byte current = frontBuffer[idx];
+          byte next = Rules.nextTribe(current, counts, dice, row, col);
+          backBuffer[idx] = next;
+          if (next != current) {
+            delta.change(row, col, current, next);
+            changed = true;
+          } else if (Rules.rollsDice(current, counts)) {
+            changed = true;
+          }
+        }
+
+        // Several tiles may share a chunk; they only ever write true.
+        if (changed)
+          nextChangedChunks[chunk] = true;
+      }
+    }
+  }
+
+  private void countTribeNeighbors(int row, int col, int[] counts) {
+    Arrays.fill(counts, 0);
+
+    int fromRow = Math.max(row - 1, 0);
+    int toRow = Math.min(row + 1, ROWS - 1);
+    int fromCol = Math.max(col - 1, 0);
+    int toCol = Math.min(col + 1, COLS - 1);
+
+    for (int r = fromRow; r <= toRow; r++) {
+      int offset = r * COLS;
+      for (int c = fromCol; c <= toCol; c++)
+        counts[frontBuffer[offset + c]]++;
+    }
+    counts[frontBuffer[row * COLS + col]]--;
+  }
+}
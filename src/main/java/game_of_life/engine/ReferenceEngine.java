@@ -0,0 +1,112 @@
+package game_of_life.engine;
+
+import java.util.Arrays;
+
+import game_of_life.types.Tribe;
+import game_of_life.utils.Pair;
+import game_of_life.utils.Point;
+import io.vavr.collection.Vector;
+
+/**
+ * The original {@code Tribe[][]} engine. Kept as the reference implementation of the rules.
+ */
+public class ReferenceEngine extends TiledEngine {
+  private final int ROWS;
+  private final int COLS;
+
+  private Tribe[][] frontBuffer;
+  private Tribe[][] backBuffer;
+
+  public ReferenceEngine(int rows, int cols) {
+    this.ROWS = rows;
+    this.COLS = cols;
+
+    frontBuffer = emptyBuffer();
+    backBuffer = emptyBuffer();
+  }
+
+  public Tribe[][] emptyBuffer() {
+    Tribe[][] buffer = new Tribe[ROWS][COLS];
+    for (Tribe[] row : buffer)
+      Arrays.fill(row, Tribe.NONE);
+    return buffer;
+  }
+
+  @Override
+  public int getRows() {
+    return ROWS;
+  }
+
+  @Override
+  public int getCols() {
+    return COLS;
+  }
+
+  @Override
+  public Tribe get(int row, int col) {
+    return frontBuffer[row][col];
+  }
+
+  @Override
+  public void set(int row, int col, Tribe tribe) {
+    frontCensus.change(row, col, frontBuffer[row][col].ordinal(), tribe.ordinal());
+    frontBuffer[row][col] = tribe;
+  }
+
+  @Override
+  public void swapBuffers() {
+    Tribe[][] temp = frontBuffer;
+    frontBuffer = backBuffer;
+    backBuffer = temp;
+    swapCensus();
+  }
+
+  @Override
+  protected void prepRows(Dice dice, int fromRow, int toRow, Census delta) {
+    Vector<Integer> rows = Vector.range(fromRow, toRow);
+    Vector<Integer> cols = Vector.range(0, COLS);
+
+    rows.forEach(row -> cols.forEach(col -> {
+      Tribe currentTribe = frontBuffer[row][col];
+      Vector<Pair<Tribe, Integer>> tribe_aliveCounts = this.countTribeNeighbors(row, col);
+      int countLivingNeighbors = tribe_aliveCounts.foldLeft(0, (acc, pair) -> acc + pair.getSecond());
+
+      if (Tribe.isAlive(currentTribe) && (countLivingNeighbors < 2 ||
+          countLivingNeighbors > 3)) {
+        this.backBuffer[row][col] = Tribe.NONE;
+      } else if (Tribe.isAlive(currentTribe)) {
+        Pair<Tribe, Integer> tmp = tribe_aliveCounts.find(pair -> pair.getFirst() == currentTribe)
+            .getOrElse(Pair.of(currentTribe, -1));
+        if (tmp.getSecond() == 2 || tmp.getSecond() == 3) {
+          this.backBuffer[row][col] = currentTribe;
+        } else if (dice.roll(row, col) <= .5d) {
+          this.backBuffer[row][col] = currentTribe;
+        } else {
+          this.backBuffer[row][col] = Tribe.NONE;
+        }
+      } else if (!Tribe.isAlive(currentTribe)) {
+        Pair<Tribe, Integer> tmp = tribe_aliveCounts
+            .find(pair -> pair.getSecond() == 3).getOrElse(Pair.of(Tribe.NONE, -1));
+        this.backBuffer[row][col] = tmp.getFirst();
+      }
+
+      if (this.backBuffer[row][col] != currentTribe)
+        delta.change(row, col, currentTribe.ordinal(), this.backBuffer[row][col].ordinal());
+    }));
+  }
+
+  private Vector<Pair<Tribe, Integer>> countTribeNeighbors(int row, int col) {
+    Vector<Tribe> neighbors = Vector.rangeClosed(-1, 1)
+        .flatMap(offsetRow -> Vector.rangeClosed(-1, 1).map(offsetCol -> Point.from(row + offsetRow, col + offsetCol)))
+        .reject(point -> point.getX() - row == 0 && point.getY() - col == 0)
+        .filter(point -> point.getX() >= 0 &&
+            point.getX() < frontBuffer.length &&
+            point.getY() >= 0 &&
+            point.getY() < frontBuffer[0].length)
+        .map(point -> frontBuffer[point.getX()][point.getY()])
+        .filter(tribe -> tribe != Tribe.NONE);
+
+    return Vector.of(Tribe.values())
+        .map(tribe -> Pair.of(tribe, neighbors.filter(curr_tribe -> curr_tribe == tribe).size()));
+  }
+}
@@ -0,0 +1,32 @@
+package game_of_life.engine;
+
+/**
+ * Applies the rules to a run of cells of a padded board: a {@code byte[]} of
+ * tribe ordinals, {@code stride} cells per row, with a border of
+ * {@link Rules#NONE} cells around the board so every neighbour is in bounds.
+ *
+ * Kernels do not roll the dice. A cell whose fate depends on the survival
+ * coin-flip is written as {@link #COIN} and resolved by the caller.
+ */
+interface RowKernel {
+  byte COIN = (byte) (Rules.NONE + 1);
+
+  /**
+   * Writes the next ordinal of cells {@code [from, to)} of {@code cells} to the
+   * same indices of {@code next}.
+   */
+  void step(byte[] cells, int stride, int from, int to, byte[] next);
+
+  /**
+   * Returns the Vector API kernel when the {@code jdk.incubator.vector} module
+   * is available (run with {@code --add-modules jdk.incubator.vector}), or the
+   * scalar kernel otherwise.
+   */
+  static RowKernel create() {
+    try {
+      return (RowKernel) Class.forName("game_of_life.engine.VectorRowKernel").getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return new ScalarRowKernel();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package game_of_life.engine;
+
+import game_of_life.types.Tribe;
+
+/**
+ * The multi-tribe rules shared by every engine, on tribe ordinals.
+ */
+final class Rules {
+  static final byte NONE = (byte) Tribe.NONE.ordinal();
+
+  private Rules() {
+  }
+
+  /**
+   * Applies the multi-tribe rules to one cell given its per-tribe neighbour counts.
+   * Living neighbours are counted in {@code counts[0..NONE)}; {@code counts[NONE]} is ignored.
+   */
+  static byte nextTribe(byte current, int[] counts, Dice dice, int row, int col) {
+    int living = 0;
+    for (int tribe = 0; tribe < NONE; tribe++)
+      living += counts[tribe];
+
+    if (current != NONE) {
+      if (living < 2 || living > 3)
+        return NONE;
+      int same = counts[current];
+      if (same == 2 || same == 3 || dice.roll(row, col) <= .5d)
+        return current;
+      return NONE;
+    }
+
+    for (byte tribe = 0; tribe < NONE; tribe++)
+      if (counts[tribe] == 3)
+        return tribe;
+    return NONE;
+  }
+
+  /**
+   * Whether the next state of this cell depends on the survival coin-flip, so
+   * it can change even if its neighbourhood does not.
+   */
+  static boolean rollsDice(byte current, int[] counts) {
+    if (current == NONE)
+      return false;
+
+    int living = 0;
+    for (int tribe = 0; tribe < NONE; tribe++)
+      living += counts[tribe];
+    int same = counts[current];
+    return living >= 2 && living <= 3 && same != 2 && same != 3;
+  }
+}
@@ -0,0 +1,33 @@
+package game_of_life.engine;
+
+import java.util.Arrays;
+
+/**
+ * Steps one cell at a time with {@link Rules}.
+ */
+final class ScalarRowKernel implements RowKernel {
+  @Override
+  public void step(byte[] cells, int stride, int from, int to, byte[] next) {
+    stepCells(cells, stride, from, to, next);
+  }
+
+  static void stepCells(byte[] cells, int stride, int from, int to, byte[] next) {
+    int[] counts = new int[Rules.NONE + 1];
+
+    for (int idx = from; idx < to; idx++) {
+      Arrays.fill(counts, 0);
+      counts[cells[idx - stride - 1]]++;
+      counts[cells[idx - stride]]++;
+      counts[cells[idx - stride + 1]]++;
+      counts[cells[idx - 1]]++;
+      counts[cells[idx + 1]]++;
+      counts[cells[idx + stride - 1]]++;
+      counts[cells[idx + stride]]++;
+      counts[cells[idx + stride + 1]]++;
+
+      byte current = cells[idx];
+      // Without a coin-flip the rules never roll, so any dice will do.
+      next[idx] = Rules.rollsDice(current, counts) ? COIN : Rules.nextTribe(current, counts, Dice.ALWAYS_SURVIVE, 0, 0);
+    }
+  }
+}
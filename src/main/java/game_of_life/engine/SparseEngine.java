@@ -0,0 +1,126 @@
+package game_of_life.engine;
+
+import java.util.concurrent.ForkJoinPool;
+
+import game_of_life.types.Tribe;
+import game_of_life.utils.LongIntMap;
+
+/**
+ * Stores only living cells, keyed by packed {@code (row << 32 | col)}
+ * coordinates, so memory and step time scale with the population rather than
+ * the board area. Each step visits the living cells and their neighbours only,
+ * and rebuilds the census from the cells that are alive afterwards.
+ */
+public class SparseEngine implements Engine {
+  private static final Tribe[] TRIBES = Tribe.values();
+  private static final byte NONE = Rules.NONE;
+  private static final int BITS_PER_COUNT = 4;
+  private static final int COUNT_MASK = (1 << BITS_PER_COUNT) - 1;
+
+  private final int ROWS;
+  private final int COLS;
+
+  private LongIntMap frontBuffer = new LongIntMap();
+  private LongIntMap backBuffer = new LongIntMap();
+  private Census frontCensus = new Census();
+  private Census backCensus = new Census();
+  /** Per-tribe neighbour counts packed {@link #BITS_PER_COUNT} bits per tribe. */
+  private LongIntMap neighborCounts;
+
+  public SparseEngine(int rows, int cols) {
+    this.ROWS = rows;
+    this.COLS = cols;
+  }
+
+  private static long pack(int row, int col) {
+    return ((long) row << 32) | col;
+  }
+
+  private static int row(long key) {
+    return (int) (key >>> 32);
+  }
+
+  private static int col(long key) {
+    return (int) key;
+  }
+
+  @Override
+  public int getRows() {
+    return ROWS;
+  }
+
+  @Override
+  public int getCols() {
+    return COLS;
+  }
+
+  @Override
+  public Census getCensus() {
+    return frontCensus;
+  }
+
+  @Override
+  public Tribe get(int row, int col) {
+    return TRIBES[frontBuffer.get(pack(row, col), NONE)];
+  }
+
+  @Override
+  public void set(int row, int col, Tribe tribe) {
+    frontCensus.change(row, col, frontBuffer.get(pack(row, col), NONE), tribe.ordinal());
+    if (Tribe.isAlive(tribe))
+      frontBuffer.put(pack(row, col), tribe.ordinal());
+    else
+      frontBuffer.remove(pack(row, col));
+  }
+
+  @Override
+  public void forEachLiving(CellVisitor visitor) {
+    frontBuffer.forEach((key, tribe) -> visitor.accept(row(key), col(key), TRIBES[tribe]));
+  }
+
+  @Override
+  public void swapBuffers() {
+    LongIntMap temp = frontBuffer;
+    frontBuffer = backBuffer;
+    backBuffer = temp;
+
+    Census census = frontCensus;
+    frontCensus = backCensus;
+    backCensus = census;
+  }
+
+  /**
+   * Runs on the calling thread; the pool is not used.
+   */
+  @Override
+  public void prepNextState(Dice dice, ForkJoinPool pool) {
+    if (neighborCounts == null)
+      neighborCounts = new LongIntMap(frontBuffer.size() * 4);
+    LongIntMap counts = neighborCounts;
+    counts.clear();
+
+    frontBuffer.forEach((key, tribe) -> {
+      int row = row(key);
+      int col = col(key);
+      int increment = 1 << (BITS_PER_COUNT * tribe);
+      for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, ROWS - 1); r++)
+        for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, COLS - 1); c++)
+          if (r != row || c != col)
+            counts.addTo(pack(r, c), increment);
+    });
+
+    backBuffer.clear();
+    backCensus.clear();
+    int[] tribeCounts = new int[TRIBES.length];
+    counts.forEach((key, packed) -> {
+      for (int tribe = 0; tribe < NONE; tribe++)
+        tribeCounts[tribe] = (packed >>> (BITS_PER_COUNT * tribe)) & COUNT_MASK;
+
+      byte next = Rules.nextTribe((byte) frontBuffer.get(key, NONE), tribeCounts, dice, row(key), col(key));
+      if (next != NONE) {
+        backBuffer.put(key, next);
+        backCensus.change(row(key), col(key), NONE, next);
+      }
+    });
+  }
+}
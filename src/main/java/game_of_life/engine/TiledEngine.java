@@ -0,0 +1,75 @@
+package game_of_life.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Base for engines whose rows can be stepped independently. The board is cut
+ * into fixed bands of {@link #TILE_ROWS} rows which are computed on the given
+ * pool, or on the calling thread when no pool is given.
+ */
+public abstract class TiledEngine implements Engine {
+  public static final int TILE_ROWS = 8;
+
+  protected Census frontCensus = new Census();
+  protected Census backCensus = new Census();
+
+  @Override
+  public Census getCensus() {
+    return frontCensus;
+  }
+
+  @Override
+  public void prepNextState(Dice dice, ForkJoinPool pool) {
+    int tiles = (getRows() + TILE_ROWS - 1) / TILE_ROWS;
+    backCensus.copyFrom(frontCensus);
+
+    if (pool == null || pool.getParallelism() <= 1 || tiles <= 1)
+      prepTile(dice, 0, getRows());
+    else
+      pool.invoke(new TileTask(dice, 0, tiles));
+  }
+
+  private void prepTile(Dice dice, int fromRow, int toRow) {
+    Census delta = new Census();
+    prepRows(dice, fromRow, toRow, delta);
+    backCensus.merge(delta);
+  }
+
+  protected void swapCensus() {
+    Census temp = frontCensus;
+    frontCensus = backCensus;
+    backCensus = temp;
+  }
+
+  /**
+   * Computes rows {@code [fromRow, toRow)} of the back buffer from the front
+   * buffer, recording every cell that changes in {@code delta}.
+   */
+  protected abstract void prepRows(Dice dice, int fromRow, int toRow, Census delta);
+
+  private class TileTask extends RecursiveAction {
+    private static final long serialVersionUID = -2440946262186327641L;
+
+    private final Dice dice;
+    private final int fromTile;
+    private final int toTile;
+
+    TileTask(Dice dice, int fromTile, int toTile) {
+      this.dice = dice;
+      this.fromTile = fromTile;
+      this.toTile = toTile;
+    }
+
+    @Override
+    protected void compute() {
+      if (toTile - fromTile == 1) {
+        prepTile(dice, fromTile * TILE_ROWS, Math.min((fromTile + 1) * TILE_ROWS, getRows()));
+        return;
+      }
+
+      int middle = (fromTile + toTile) >>> 1;
+      invokeAll(new TileTask(dice, fromTile, middle), new TileTask(dice, middle, toTile));
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package game_of_life.engine;
+
+import java.util.Arrays;
+
+import game_of_life.types.Tribe;
+
+/**
+ * Stores both generations as padded {@code byte[]} arrays of tribe ordinals
+ * and steps whole rows through a {@link RowKernel}: the Vector API kernel when
+ * the JVM runs with {@code --add-modules jdk.incubator.vector}, the scalar one
+ * otherwise. Only the coin-flips and the census are handled cell by cell.
+ */
+public class VectorEngine extends TiledEngine {
+  private static final Tribe[] TRIBES = Tribe.values();
+  private static final byte NONE = Rules.NONE;
+
+  private final int ROWS;
+  private final int COLS;
+  /** Row length including the one-cell border on either side. */
+  private final int STRIDE;
+
+  private byte[] frontBuffer;
+  private byte[] backBuffer;
+
+  private RowKernel kernel;
+
+  public VectorEngine(int rows, int cols) {
+    this.ROWS = rows;
+    this.COLS = cols;
+    this.STRIDE = cols + 2;
+
+    frontBuffer = emptyBuffer();
+    backBuffer = emptyBuffer();
+  }
+
+  private byte[] emptyBuffer() {
+    byte[] buffer = new byte[Grid.cellCount(ROWS + 2, STRIDE)];
+    Arrays.fill(buffer, NONE);
+    return buffer;
+  }
+
+  private int index(int row, int col) {
+    return (row + 1) * STRIDE + col + 1;
+  }
+
+  /**
+   * Whether stepping runs on the Vector API kernel rather than the scalar fallback.
+   */
+  public boolean isVectorized() {
+    return !(kernel() instanceof ScalarRowKernel);
+  }
+
+  private RowKernel kernel() {
+    if (kernel == null)
+      kernel = RowKernel.create();
+    return kernel;
+  }
+
+  @Override
+  public int getRows() {
+    return ROWS;
+  }
+
+  @Override
+  public int getCols() {
+    return COLS;
+  }
+
+  @Override
+  public Tribe get(int row, int col) {
+    return TRIBES[frontBuffer[index(row, col)]];
+  }
+
+  @Override
+  public void set(int row, int col, Tribe tribe) {
+    int idx = index(row, col);
+    frontCensus.change(row, col, frontBuffer[idx], tribe.ordinal());
+    frontBuffer[idx] = (byte) tribe.ordinal();
+  }
+
+  @Override
+  public void copyTo(byte[] cells) {
+    for (int row = 0; row < ROWS; row++)
+      System.arraycopy(frontBuffer, index(row, 0), cells, row * COLS, COLS);
+  }
+
+  @Override
+  public void swapBuffers() {
+    byte[] temp = frontBuffer;
+    frontBuffer = backBuffer;
+    backBuffer = temp;
+    swapCensus();
+  }
+
+  @Override
+  protected void prepRows(Dice dice, int fromRow, int toRow, Census delta) {
+    RowKernel kernel = kernel();
+
+    for (int row = fromRow; row < toRow; row++) {
+      int start = index(row, 0);
+      kernel.step(frontBuffer, STRIDE, start, start + COLS, backBuffer);
+
+      for (int col = 0, idx = start; col < COLS; col++, idx++) {
+        byte current = frontBuffer[idx];
+        byte next = backBuffer[idx];
+        if (next == RowKernel.COIN) {
+          next = dice.roll(row, col) <= .5d ? current : NONE;
+          backBuffer[idx] = next;
+        }
+        if (next != current)
+          delta.change(row, col, current, next);
+      }
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package game_of_life.layout;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fills a batch of consecutive bands of {@link Layout#BAND_ROWS} rows, each into its own buffer.
+ */
+final class BandTask extends RecursiveAction {
+  private static final long serialVersionUID = -6310839012455197373L;
+
+  private final Layout layout;
+  private final byte[][] bands;
+  private final int batchFrom;
+  private final int rows;
+  private final int fromBand;
+  private final int toBand;
+
+  BandTask(Layout layout, byte[][] bands, int batchFrom, int rows, int fromBand, int toBand) {
+    this.layout = layout;
+    this.bands = bands;
+    this.batchFrom = batchFrom;
+    this.rows = rows;
+    this.fromBand = fromBand;
+    this.toBand = toBand;
+  }
+
+  @Override
+  protected void compute() {
+    if (toBand - fromBand == 1) {
+      int fromRow = batchFrom + fromBand * Layout.BAND_ROWS;
+      if (fromRow < rows)
+        layout.fill(fromRow, Math.min(fromRow + Layout.BAND_ROWS, rows), bands[fromBand]);
+      return;
+    }
+
+    int middle = (fromBand + toBand) >>> 1;
+    invokeAll(new BandTask(layout, bands, batchFrom, rows, fromBand, middle),
+        new BandTask(layout, bands, batchFrom, rows, middle, toBand));
+  }
+}
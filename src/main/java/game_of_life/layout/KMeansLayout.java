@@ -0,0 +1,84 @@
+package game_of_life.layout;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import game_of_life.Settings;
+import game_of_life.types.Tribe;
+import game_of_life.utils.KMeansClustering;
+
+/**
+ * Fills cells at random and gives every k-means cluster of them a tribe.
+ * Clustering needs all cells at once, so the living cells are laid out up
+ * front, row by row; the empty ones are not kept.
+ */
+class KMeansLayout implements Layout {
+  private final int cols;
+  /** Index of the first living cell of every row, and of the end of the last one. */
+  private final int[] rowStart;
+  private final int[] colOf;
+  private final byte[] tribeOf;
+
+  KMeansLayout(Settings settings, ForkJoinPool pool) {
+    this.cols = settings.cols;
+
+    Random random = new Random(settings.seed);
+    int[][] points = generatePositions(settings.rows, settings.cols, settings.percentageFill, random);
+    int[] xs = points[0];
+    int[] ys = points[1];
+    int[] clusters = KMeansClustering.cluster(xs, ys, xs.length, settings.numberOfClusters, random, pool);
+
+    // Counting sort by row, as the cells were picked column by column.
+    rowStart = new int[settings.rows + 1];
+    for (int x : xs)
+      rowStart[x + 1]++;
+    for (int row = 0; row < settings.rows; row++)
+      rowStart[row + 1] += rowStart[row];
+    int[] next = Arrays.copyOf(rowStart, settings.rows);
+    colOf = new int[xs.length];
+    tribeOf = new byte[xs.length];
+    for (int i = 0; i < xs.length; i++) {
+      int at = next[xs[i]]++;
+      colOf[at] = ys[i];
+      tribeOf[at] = (byte) Layout.tribeOf(clusters[i]).ordinal();
+    }
+  }
+
+  /**
+   * Picks every cell with probability {@code fill}, column by column, and
+   * returns the rows and the columns of the picked cells.
+   */
+  private static int[][] generatePositions(int rows, int cols, double fill, Random random) {
+    int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) rows * cols * fill * 1.05 + 16);
+    int[] xs = new int[capacity];
+    int[] ys = new int[capacity];
+    int size = 0;
+
+    for (int y = 0; y < cols; y++) {
+      for (int x = 0; x < rows; x++) {
+        if (random.nextDouble() >= fill)
+          continue;
+
+        if (size == xs.length) {
+          xs = Arrays.copyOf(xs, size + (size >> 1) + 16);
+          ys = Arrays.copyOf(ys, xs.length);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+      }
+    }
+    return new int[][] {Arrays.copyOf(xs, size), Arrays.copyOf(ys, size)};
+  }
+
+  @Override
+  public void fill(int fromRow, int toRow, byte[] cells) {
+    Arrays.fill(cells, 0, (toRow - fromRow) * cols, (byte) Tribe.NONE.ordinal());
+    for (int row = fromRow; row < toRow; row++) {
+      int offset = (row - fromRow) * cols;
+      for (int i = rowStart[row]; i < rowStart[row + 1]; i++)
+        cells[offset + colOf[i]] = tribeOf[i];
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package game_of_life.layout;
+
+import java.util.concurrent.ForkJoinPool;
+
+import game_of_life.Settings;
+import game_of_life.engine.Dice;
+import game_of_life.engine.Engine;
+import game_of_life.types.Tribe;
+
+/**
+ * Decides which tribe, if any, starts on every cell of a new board. Layouts
+ * produce the board a band of rows at a time, so bands can be generated in
+ * parallel and the whole board never has to be held twice.
+ */
+public interface Layout {
+  /** Rows generated by one task. */
+  int BAND_ROWS = 64;
+  /** Mixed into the seed of {@link #fillDice}, so layouts do not roll what the generations roll. */
+  long FILL_SALT = 0x6C61796F75742131L;
+
+  /**
+   * Writes the tribe ordinals of rows {@code [fromRow, toRow)} to
+   * {@code cells}, row by row. Safe to call for different rows at once.
+   */
+  void fill(int fromRow, int toRow, byte[] cells);
+
+  /**
+   * The tribe of a cluster. There are more clusters than tribes when asked
+   * for, so clusters take turns over the tribes.
+   */
+  static Tribe tribeOf(int cluster) {
+    return Tribe.values()[cluster % Tribe.NONE.ordinal()];
+  }
+
+  /**
+   * Decides per cell whether it is filled, on a stream of its own.
+   */
+  static Dice fillDice(Settings settings) {
+    return new Dice(settings.seed ^ FILL_SALT, 0);
+  }
+
+  /**
+   * @param pool used by layouts that need the whole board up front
+   */
+  static Layout create(Settings settings, ForkJoinPool pool) {
+    switch (settings.layout) {
+      case VORONOI:
+        return new VoronoiLayout(settings);
+      case HSTRIPES:
+        return new StripesLayout(settings, false);
+      case VSTRIPES:
+        return new StripesLayout(settings, true);
+      case PATTERN:
+        if (settings.patternFile != null)
+          return PatternLayout.read(settings);
+        // No pattern given: fall back to the default.
+        return new KMeansLayout(settings, pool);
+      case KMEANS:
+      default:
+        return new KMeansLayout(settings, pool);
+    }
+  }
+
+  /**
+   * Sets the living cells of the layout on the engine. Bands are generated
+   * on the pool, as many at once as it has threads, and set on the calling
+   * thread, as engines are not safe to write from several threads.
+   *
+   * @param pool {@code null} to generate every band on the calling thread
+   */
+  static void apply(Layout layout, Engine engine, ForkJoinPool pool) {
+    int rows = engine.getRows();
+    int cols = engine.getCols();
+    int parallelism = pool == null ? 1 : pool.getParallelism();
+    int batchBands = Math.max(1, Math.min(parallelism, (rows + BAND_ROWS - 1) / BAND_ROWS));
+    byte[][] bands = new byte[batchBands][BAND_ROWS * cols];
+    byte none = (byte) Tribe.NONE.ordinal();
+    Tribe[] tribes = Tribe.values();
+
+    for (int fromRow = 0; fromRow < rows; fromRow += batchBands * BAND_ROWS) {
+      BandTask batch = new BandTask(layout, bands, fromRow, rows, 0, batchBands);
+      if (batchBands == 1)
+        batch.compute();
+      else
+        pool.invoke(batch);
+
+      for (int band = 0; band < batchBands; band++) {
+        int bandFrom = fromRow + band * BAND_ROWS;
+        int bandTo = Math.min(bandFrom + BAND_ROWS, rows);
+        byte[] cells = bands[band];
+        for (int row = bandFrom; row < bandTo; row++) {
+          int offset = (row - bandFrom) * cols;
+          for (int col = 0; col < cols; col++)
+            if (cells[offset + col] != none)
+              engine.set(row, col, tribes[cells[offset + col]]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package game_of_life.layout;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import game_of_life.Settings;
+import game_of_life.types.Tribe;
+
+/**
+ * A board drawn in a text file, centred on the board and cut off where it
+ * does not fit. Every line is a row, written with the sigils shown on screen:
+ * {@code A}, {@code B} and {@code C} are cells of the tribes and any other
+ * character is an empty cell. Lines starting with {@code !} or {@code #} are
+ * comments.
+ */
+class PatternLayout implements Layout {
+  private final int cols;
+  private final byte[][] pattern;
+  private final int top;
+  private final int left;
+
+  private PatternLayout(Settings settings, byte[][] pattern) {
+    this.cols = settings.cols;
+    this.pattern = pattern;
+    int width = 0;
+    for (byte[] line : pattern)
+      width = Math.max(width, line.length);
+    this.top = (settings.rows - pattern.length) / 2;
+    this.left = (settings.cols - width) / 2;
+  }
+
+  /**
+   * @throws UncheckedIOException if the pattern file cannot be read
+   */
+  static PatternLayout read(Settings settings) {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(Paths.get(settings.patternFile), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read pattern " + settings.patternFile, e);
+    }
+
+    List<byte[]> pattern = new ArrayList<>();
+    for (String line : lines) {
+      if (line.startsWith("!") || line.startsWith("#"))
+        continue;
+
+      byte[] row = new byte[line.length()];
+      for (int col = 0; col < row.length; col++)
+        row[col] = (byte) tribeOf(line.charAt(col)).ordinal();
+      pattern.add(row);
+    }
+    return new PatternLayout(settings, pattern.toArray(new byte[0][]));
+  }
+
+  private static Tribe tribeOf(char sigil) {
+    for (Tribe tribe : Tribe.getTribes())
+      if (tribe.getSigil().charAt(0) == sigil)
+        return tribe;
+    return Tribe.NONE;
+  }
+
+  @Override
+  public void fill(int fromRow, int toRow, byte[] cells) {
+    byte none = (byte) Tribe.NONE.ordinal();
+    Arrays.fill(cells, 0, (toRow - fromRow) * cols, none);
+    for (int row = Math.max(fromRow, top); row < Math.min(toRow, top + pattern.length); row++) {
+      byte[] line = pattern[row - top];
+      int from = Math.max(0, -left);
+      int to = Math.min(line.length, cols - left);
+      if (from < to)
+        System.arraycopy(line, from, cells, (row - fromRow) * cols + left + from, to - from);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package game_of_life.layout;
+
+import java.util.Arrays;
+
+import game_of_life.Settings;
+import game_of_life.engine.Dice;
+import game_of_life.types.Tribe;
+
+/**
+ * Cuts the board into one equal stripe per cluster, across the rows or
+ * across the columns, and fills every stripe with its tribe.
+ */
+class StripesLayout implements Layout {
+  private final int rows;
+  private final int cols;
+  private final int stripes;
+  private final double fill;
+  private final Dice dice;
+  private final boolean vertical;
+
+  StripesLayout(Settings settings, boolean vertical) {
+    this.rows = settings.rows;
+    this.cols = settings.cols;
+    this.stripes = Math.max(1, settings.numberOfClusters);
+    this.fill = settings.percentageFill;
+    this.dice = Layout.fillDice(settings);
+    this.vertical = vertical;
+  }
+
+  @Override
+  public void fill(int fromRow, int toRow, byte[] cells) {
+    byte none = (byte) Tribe.NONE.ordinal();
+    Arrays.fill(cells, 0, (toRow - fromRow) * cols, none);
+    for (int row = fromRow, idx = 0; row < toRow; row++) {
+      for (int col = 0; col < cols; col++, idx++) {
+        if (dice.roll(row, col) >= fill)
+          continue;
+
+        long stripe = vertical ? (long) col * stripes / cols : (long) row * stripes / rows;
+        cells[idx] = (byte) Layout.tribeOf((int) stripe).ordinal();
+      }
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package game_of_life.layout;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import game_of_life.Settings;
+import game_of_life.engine.Dice;
+import game_of_life.types.Tribe;
+
+/**
+ * One random site per cluster; every cell belongs to its nearest site. Sites
+ * are kept in a grid of buckets holding about one site each, and a cell only
+ * looks at the rings of buckets around its own until no closer site can be
+ * left, so a cell costs about the same whatever the number of clusters.
+ */
+class VoronoiLayout implements Layout {
+  private final int cols;
+  private final double fill;
+  private final Dice dice;
+
+  final int[] siteRows;
+  final int[] siteCols;
+  /** Side of a bucket in cells. */
+  private final int bucketSize;
+  private final int bucketRows;
+  private final int bucketCols;
+  /** Sites of bucket {@code b} are {@code bucketSites[bucketStart[b]]} up to {@code bucketStart[b + 1]}. */
+  private final int[] bucketStart;
+  private final int[] bucketSites;
+
+  VoronoiLayout(Settings settings) {
+    int rows = settings.rows;
+    this.cols = settings.cols;
+    this.fill = settings.percentageFill;
+    this.dice = Layout.fillDice(settings);
+
+    int sites = Math.max(1, settings.numberOfClusters);
+    Random random = new Random(settings.seed);
+    siteRows = new int[sites];
+    siteCols = new int[sites];
+    for (int site = 0; site < sites; site++) {
+      siteRows[site] = random.nextInt(rows);
+      siteCols[site] = random.nextInt(cols);
+    }
+
+    bucketSize = (int) Math.max(1, Math.ceil(Math.sqrt((double) rows * cols / sites)));
+    bucketRows = (rows + bucketSize - 1) / bucketSize;
+    bucketCols = (cols + bucketSize - 1) / bucketSize;
+    bucketStart = new int[bucketRows * bucketCols + 1];
+    for (int site = 0; site < sites; site++)
+      bucketStart[bucketOf(site) + 1]++;
+    for (int bucket = 0; bucket < bucketRows * bucketCols; bucket++)
+      bucketStart[bucket + 1] += bucketStart[bucket];
+    bucketSites = new int[sites];
+    int[] next = Arrays.copyOf(bucketStart, bucketStart.length - 1);
+    for (int site = 0; site < sites; site++)
+      bucketSites[next[bucketOf(site)]++] = site;
+  }
+
+  private int bucketOf(int site) {
+    return siteRows[site] / bucketSize * bucketCols + siteCols[site] / bucketSize;
+  }
+
+  @Override
+  public void fill(int fromRow, int toRow, byte[] cells) {
+    byte none = (byte) Tribe.NONE.ordinal();
+    Arrays.fill(cells, 0, (toRow - fromRow) * cols, none);
+    for (int row = fromRow, idx = 0; row < toRow; row++)
+      for (int col = 0; col < cols; col++, idx++)
+        if (dice.roll(row, col) < fill)
+          cells[idx] = (byte) Layout.tribeOf(nearestSite(row, col)).ordinal();
+  }
+
+  int nearestSite(int row, int col) {
+    int bucketRow = row / bucketSize;
+    int bucketCol = col / bucketSize;
+    int nearest = -1;
+    long best = Long.MAX_VALUE;
+    int maxRing = Math.max(bucketRows, bucketCols);
+
+    for (int ring = 0; ring <= maxRing; ring++) {
+      for (int r = bucketRow - ring; r <= bucketRow + ring; r++) {
+        if (r < 0 || r >= bucketRows)
+          continue;
+        // Only the border of the ring; the inside was searched before.
+        int step = r == bucketRow - ring || r == bucketRow + ring ? 1 : Math.max(1, 2 * ring);
+        for (int c = bucketCol - ring; c <= bucketCol + ring; c += step) {
+          if (c < 0 || c >= bucketCols)
+            continue;
+
+          int bucket = r * bucketCols + c;
+          for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+            int site = bucketSites[i];
+            long dr = row - siteRows[site];
+            long dc = col - siteCols[site];
+            long distance = dr * dr + dc * dc;
+            // Ties go to the lower site, whatever order the buckets are searched in.
+            if (distance < best || (distance == best && site < nearest)) {
+              best = distance;
+              nearest = site;
+            }
+          }
+        }
+      }
+
+      // Sites beyond this ring are at least ring * bucketSize cells away.
+      long reach = (long) ring * bucketSize;
+      if (nearest >= 0 && best <= reach * reach)
+        break;
+    }
+    return nearest;
+  }
+}
@@ -0,0 +1,132 @@
+package game_of_life.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts durations in log-linear buckets, as HdrHistogram does: every power
+ * of two is split into {@link #SUB_BUCKETS} equal buckets, so any percentile
+ * is known to within 1/64 of its value at a fixed size of a few thousand
+ * counters, however many values are recorded. Durations up to
+ * {@link #SUB_BUCKETS} * 2 nanoseconds are counted exactly, longer ones than
+ * {@link #MAX_NANOS} as that.
+ *
+ * One thread records while others may read, so every method locks; the lock
+ * is uncontended but for the rare reads.
+ */
+public class LatencyHistogram implements LatencyMXBean {
+  private static final int SUB_BITS = 6;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  static final long MAX_NANOS = TimeUnit.HOURS.toNanos(1);
+  private static final int BUCKETS = index(MAX_NANOS) + 1;
+
+  private final long[] counts = new long[BUCKETS];
+  private long count;
+  private long sum;
+  private long max;
+
+  /**
+   * Bucket of a duration: the duration itself below 2 * SUB_BUCKETS, otherwise
+   * its top SUB_BITS + 1 bits placed after the buckets of the shorter powers of two.
+   */
+  private static int index(long nanos) {
+    if (nanos < 2 * SUB_BUCKETS)
+      return (int) nanos;
+    int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS;
+    return shift * SUB_BUCKETS + (int) (nanos >>> shift);
+  }
+
+  /**
+   * Longest duration counted in the bucket.
+   */
+  private static long highest(int index) {
+    if (index < 2 * SUB_BUCKETS)
+      return index;
+    int shift = index / SUB_BUCKETS - 1;
+    long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+    return ((sub + 1) << shift) - 1;
+  }
+
+  public synchronized void record(long nanos) {
+    nanos = Math.max(0, Math.min(nanos, MAX_NANOS));
+    counts[index(nanos)]++;
+    count++;
+    sum += nanos;
+    max = Math.max(max, nanos);
+  }
+
+  /**
+   * The duration that {@code percentile} percent of the recorded ones do not
+   * exceed, in nanoseconds; 0 before anything is recorded.
+   */
+  public synchronized long valueAt(double percentile) {
+    if (count == 0)
+      return 0;
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank)
+        return Math.min(highest(i), max);
+    }
+    return max;
+  }
+
+  @Override
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * Mean of the recorded durations in nanoseconds.
+   */
+  public synchronized double getMean() {
+    return count > 0 ? (double) sum / count : 0;
+  }
+
+  /**
+   * Longest recorded duration in nanoseconds.
+   */
+  public synchronized long getMax() {
+    return max;
+  }
+
+  @Override
+  public double getMeanMicros() {
+    return getMean() / 1000;
+  }
+
+  @Override
+  public double getP50Micros() {
+    return valueAt(50) / 1000d;
+  }
+
+  @Override
+  public double getP90Micros() {
+    return valueAt(90) / 1000d;
+  }
+
+  @Override
+  public double getP99Micros() {
+    return valueAt(99) / 1000d;
+  }
+
+  @Override
+  public double getP999Micros() {
+    return valueAt(99.9) / 1000d;
+  }
+
+  @Override
+  public double getMaxMicros() {
+    return getMax() / 1000d;
+  }
+
+  @Override
+  public synchronized void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    sum = 0;
+    max = 0;
+  }
+}
@@ -0,0 +1,27 @@
+package game_of_life.metrics;
+
+/**
+ * Latency of one {@link game_of_life.types.Phase} of a session, exported as
+ * {@code game_of_life:type=Latency,session=<sessionID>,phase=<phase>}.
+ * Percentiles are within 1/64 of the recorded value.
+ */
+public interface LatencyMXBean {
+  long getCount();
+
+  double getMeanMicros();
+
+  double getP50Micros();
+
+  double getP90Micros();
+
+  double getP99Micros();
+
+  double getP999Micros();
+
+  double getMaxMicros();
+
+  /**
+   * Forgets every value recorded so far.
+   */
+  void reset();
+}
@@ -0,0 +1,211 @@
+package game_of_life.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import game_of_life.engine.Census;
+import game_of_life.types.Phase;
+import game_of_life.types.Tribe;
+
+/**
+ * What a board measures about itself while it runs: generations per second,
+ * the latency of every {@link Phase}, the population of every tribe, the
+ * size of the cycle detector, allocation per generation and what the
+ * terminal was sent. The simulation thread and the game loop record, the
+ * {@code stats} command and JMX read; see {@link #register(String)}.
+ */
+public class Metrics implements MetricsMXBean {
+  private static final String DOMAIN = "game_of_life";
+  private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+  private final Map<Phase, LatencyHistogram> latencies = new EnumMap<>(Phase.class);
+
+  private long generation;
+  private final long[] population = new long[Tribe.values().length];
+  private int memoSize;
+  private long steps;
+  /** Bytes allocated over the steps measured, -1 while allocation is not measured. */
+  private long allocated = -1;
+  private long allocationSteps;
+
+  private long lastStepAt;
+  private long windowStart;
+  private long windowGeneration;
+  /** Rate over the last full window; NaN until one has passed since the window was last restarted. */
+  private double generationsPerSecond = Double.NaN;
+
+  private long frames;
+  private long bytesRendered;
+
+  private final List<ObjectName> names = new ArrayList<>();
+
+  public Metrics() {
+    for (Phase phase : Phase.values())
+      latencies.put(phase, new LatencyHistogram());
+  }
+
+  private static com.sun.management.ThreadMXBean threads() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported())
+      return (com.sun.management.ThreadMXBean) threads;
+    return null;
+  }
+
+  /**
+   * Bytes the calling thread has allocated so far, -1 if the JVM does not
+   * measure it. Only differences between two calls on one thread mean anything.
+   */
+  public static long allocatedBytes() {
+    return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+  }
+
+  public void record(Phase phase, long nanos) {
+    latencies.get(phase).record(nanos);
+  }
+
+  public LatencyHistogram getLatency(Phase phase) {
+    return latencies.get(phase);
+  }
+
+  /**
+   * Records a generation the simulation computed.
+   *
+   * @param allocatedBytes allocated while computing it, negative if not measured
+   */
+  public synchronized void stepped(long generation, Census census, int memoSize, long allocatedBytes) {
+    long now = System.nanoTime();
+    // After a pause, a rewind or a new start, count from here instead of averaging over the gap.
+    if (steps == 0 || now - lastStepAt > WINDOW_NANOS || generation < windowGeneration) {
+      windowStart = now;
+      windowGeneration = generation;
+      generationsPerSecond = Double.NaN;
+    } else if (now - windowStart >= WINDOW_NANOS) {
+      generationsPerSecond = (double) (generation - windowGeneration) * TimeUnit.SECONDS.toNanos(1)
+          / (now - windowStart);
+      windowStart = now;
+      windowGeneration = generation;
+    }
+    lastStepAt = now;
+
+    this.generation = generation;
+    for (Tribe tribe : Tribe.getTribes())
+      population[tribe.ordinal()] = census.getPopulation(tribe);
+    this.memoSize = memoSize;
+    steps++;
+    if (allocatedBytes >= 0) {
+      allocated = Math.max(allocated, 0) + allocatedBytes;
+      allocationSteps++;
+    }
+  }
+
+  /**
+   * Records a frame sent to the terminal.
+   */
+  public synchronized void rendered(int bytes) {
+    frames++;
+    bytesRendered += bytes;
+  }
+
+  @Override
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  @Override
+  public synchronized double getGenerationsPerSecond() {
+    if (!Double.isNaN(generationsPerSecond))
+      return generationsPerSecond;
+    // Less than a second so far: the rate over that.
+    long elapsed = lastStepAt - windowStart;
+    return elapsed > 0 ? (double) (generation - windowGeneration) * TimeUnit.SECONDS.toNanos(1) / elapsed : 0;
+  }
+
+  @Override
+  public synchronized Map<String, Long> getPopulation() {
+    Map<String, Long> tribes = new LinkedHashMap<>();
+    for (Tribe tribe : Tribe.getTribes())
+      tribes.put(tribe.name(), population[tribe.ordinal()]);
+    return tribes;
+  }
+
+  public synchronized long getPopulation(Tribe tribe) {
+    return population[tribe.ordinal()];
+  }
+
+  @Override
+  public synchronized int getMemoSize() {
+    return memoSize;
+  }
+
+  /**
+   * Generations computed since the board was created or loaded.
+   */
+  public synchronized long getSteps() {
+    return steps;
+  }
+
+  @Override
+  public synchronized double getAllocatedBytesPerGeneration() {
+    return allocationSteps > 0 ? (double) allocated / allocationSteps : -1;
+  }
+
+  @Override
+  public synchronized long getFramesRendered() {
+    return frames;
+  }
+
+  @Override
+  public synchronized long getBytesRendered() {
+    return bytesRendered;
+  }
+
+  /**
+   * Exports these metrics as {@code game_of_life:type=Session,session=<sessionID>}
+   * and the latency of every phase as
+   * {@code game_of_life:type=Latency,session=<sessionID>,phase=<phase>}
+   * on the platform MBean server. A session opened twice replaces its earlier beans.
+   */
+  public synchronized void register(String session) throws JMException {
+    unregister();
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    String id = ObjectName.quote(session);
+    register(server, new ObjectName(DOMAIN + ":type=Session,session=" + id), this);
+    for (Phase phase : Phase.values())
+      register(server, new ObjectName(DOMAIN + ":type=Latency,session=" + id + ",phase=" + phase.name().toLowerCase()),
+          latencies.get(phase));
+  }
+
+  private void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+    if (server.isRegistered(name))
+      server.unregisterMBean(name);
+    server.registerMBean(bean, name);
+    names.add(name);
+  }
+
+  /**
+   * Removes the beans of {@link #register(String)}, if any.
+   */
+  public synchronized void unregister() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName name : names) {
+      try {
+        server.unregisterMBean(name);
+      } catch (JMException e) {
+        // Already gone.
+      }
+    }
+    names.clear();
+  }
+}
@@ -0,0 +1,41 @@
+package game_of_life.metrics;
+
+import java.util.Map;
+
+/**
+ * How a session is doing, exported as
+ * {@code game_of_life:type=Session,session=<sessionID>}; the latency of
+ * every phase is exported next to it, see {@link LatencyMXBean}.
+ */
+public interface MetricsMXBean {
+  /**
+   * The newest generation computed.
+   */
+  long getGeneration();
+
+  /**
+   * Generations computed per second over the last second the game ran, or
+   * over as long as it has run if that is shorter.
+   */
+  double getGenerationsPerSecond();
+
+  /**
+   * Living cells of every tribe in the newest generation.
+   */
+  Map<String, Long> getPopulation();
+
+  /**
+   * States the cycle detector remembers.
+   */
+  int getMemoSize();
+
+  /**
+   * Bytes the simulation thread allocated per generation on average; -1 if
+   * the JVM does not measure allocation.
+   */
+  double getAllocatedBytesPerGeneration();
+
+  long getFramesRendered();
+
+  long getBytesRendered();
+}
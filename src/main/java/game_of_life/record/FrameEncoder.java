@@ -0,0 +1,16 @@
+package game_of_life.record;
+
+import java.io.IOException;
+
+/**
+ * Turns generations into an animation, one frame at a time. Frames are the
+ * tribe ordinals of a whole board in row-major order.
+ */
+interface FrameEncoder {
+  void encode(byte[] cells) throws IOException;
+
+  /**
+   * Completes the file and closes it.
+   */
+  void finish() throws IOException;
+}
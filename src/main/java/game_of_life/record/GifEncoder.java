@@ -0,0 +1,206 @@
+package game_of_life.record;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import game_of_life.types.Tribe;
+
+/**
+ * Writes frames as an endlessly looping animated GIF, one pixel per cell.
+ * Tribe ordinals are the indices into a four-colour palette, so cells are
+ * compressed as they are. After the first frame only the rectangle around
+ * the cells that changed is stored, on top of the previous frame.
+ */
+final class GifEncoder implements FrameEncoder {
+  private static final int MIN_CODE_SIZE = 2;
+  private static final int CLEAR = 1 << MIN_CODE_SIZE;
+  private static final int END = CLEAR + 1;
+  private static final int MAX_BITS = 12;
+  private static final int MAX_CODES = 1 << MAX_BITS;
+  /** Largest width or height a GIF can describe. */
+  static final int MAX_SIZE = 0xFFFF;
+
+  private final OutputStream out;
+  private final int rows;
+  private final int cols;
+  private final int delayCentis;
+  private byte[] previous;
+
+  /** Code following each code and symbol, 0 if not assigned yet. */
+  private final int[] table = new int[MAX_CODES << MIN_CODE_SIZE];
+  private int nextCode;
+  private int codeSize;
+  private int maxCode;
+  private boolean clearing;
+  private int bits;
+  private int bitCount;
+  private final byte[] block = new byte[255];
+  private int blockLength;
+
+  GifEncoder(OutputStream out, int rows, int cols, int delayMillis) throws IOException {
+    if (rows > MAX_SIZE || cols > MAX_SIZE)
+      throw new IOException("Board too large for a GIF: " + rows + "x" + cols);
+    this.out = out;
+    this.rows = rows;
+    this.cols = cols;
+    this.delayCentis = Math.max(2, Math.min(delayMillis / 10, MAX_SIZE));
+
+    out.write(new byte[] {'G', 'I', 'F', '8', '9', 'a'});
+    writeShort(cols);
+    writeShort(rows);
+    // Global colour table of 2^(1 + 1) entries, 8 bits per primary colour.
+    out.write(0x80 | 0x70 | (MIN_CODE_SIZE - 1));
+    out.write(Tribe.NONE.ordinal());
+    out.write(0);
+    for (Tribe tribe : Tribe.values()) {
+      int rgb = tribe.getRgb();
+      out.write(rgb >>> 16);
+      out.write(rgb >>> 8);
+      out.write(rgb);
+    }
+    // Loop forever.
+    out.write(new byte[] {0x21, (byte) 0xFF, 11, 'N', 'E', 'T', 'S', 'C', 'A', 'P', 'E', '2', '.', '0', 3, 1, 0, 0,
+        0});
+  }
+
+  @Override
+  public void encode(byte[] cells) throws IOException {
+    int top = 0;
+    int left = 0;
+    int bottom = rows - 1;
+    int right = cols - 1;
+    if (previous == null) {
+      previous = cells.clone();
+    } else {
+      top = rows;
+      left = cols;
+      bottom = -1;
+      right = -1;
+      for (int row = 0; row < rows; row++) {
+        for (int col = 0, idx = row * cols; col < cols; col++, idx++) {
+          if (cells[idx] != previous[idx]) {
+            top = Math.min(top, row);
+            bottom = row;
+            left = Math.min(left, col);
+            right = Math.max(right, col);
+          }
+        }
+      }
+      // Nothing changed: still a frame, to keep the timing.
+      if (bottom < 0) {
+        top = 0;
+        left = 0;
+        bottom = 0;
+        right = 0;
+      }
+      System.arraycopy(cells, 0, previous, 0, cells.length);
+    }
+
+    // Graphic control extension: keep the previous frame under this one.
+    out.write(new byte[] {0x21, (byte) 0xF9, 4, 1 << 2});
+    writeShort(delayCentis);
+    out.write(new byte[] {0, 0});
+
+    out.write(0x2C);
+    writeShort(left);
+    writeShort(top);
+    writeShort(right - left + 1);
+    writeShort(bottom - top + 1);
+    out.write(0);
+    out.write(MIN_CODE_SIZE);
+    compress(cells, top, left, bottom, right);
+    out.write(0);
+  }
+
+  /**
+   * LZW over the pixels of the rectangle, with codes growing from 3 to 12
+   * bits and a clear code once all 4096 are taken.
+   */
+  private void compress(byte[] cells, int top, int left, int bottom, int right) throws IOException {
+    resetTable();
+    codeSize = MIN_CODE_SIZE + 1;
+    maxCode = (1 << codeSize) - 1;
+    bits = 0;
+    bitCount = 0;
+    blockLength = 0;
+    emit(CLEAR);
+
+    int prefix = cells[top * cols + left];
+    for (int row = top; row <= bottom; row++) {
+      for (int col = row == top ? left + 1 : left, idx = row * cols + col; col <= right; col++, idx++) {
+        int symbol = cells[idx];
+        int slot = (prefix << MIN_CODE_SIZE) | symbol;
+        if (table[slot] != 0) {
+          prefix = table[slot];
+          continue;
+        }
+
+        emit(prefix);
+        prefix = symbol;
+        if (nextCode < MAX_CODES) {
+          table[slot] = nextCode++;
+        } else {
+          resetTable();
+          clearing = true;
+          emit(CLEAR);
+        }
+      }
+    }
+    emit(prefix);
+    emit(END);
+
+    if (bitCount > 0)
+      writeByte(bits & 0xFF);
+    if (blockLength > 0)
+      flushBlock();
+  }
+
+  private void resetTable() {
+    Arrays.fill(table, 0);
+    nextCode = END + 1;
+  }
+
+  private void emit(int code) throws IOException {
+    bits |= code << bitCount;
+    bitCount += codeSize;
+    while (bitCount >= 8) {
+      writeByte(bits & 0xFF);
+      bits >>>= 8;
+      bitCount -= 8;
+    }
+
+    // The decoder widens its codes one code later than the encoder assigns them.
+    if (clearing) {
+      codeSize = MIN_CODE_SIZE + 1;
+      maxCode = (1 << codeSize) - 1;
+      clearing = false;
+    } else if (nextCode > maxCode && codeSize < MAX_BITS) {
+      codeSize++;
+      maxCode = codeSize == MAX_BITS ? MAX_CODES : (1 << codeSize) - 1;
+    }
+  }
+
+  private void writeByte(int b) throws IOException {
+    block[blockLength++] = (byte) b;
+    if (blockLength == block.length)
+      flushBlock();
+  }
+
+  private void flushBlock() throws IOException {
+    out.write(blockLength);
+    out.write(block, 0, blockLength);
+    blockLength = 0;
+  }
+
+  private void writeShort(int value) throws IOException {
+    out.write(value & 0xFF);
+    out.write((value >>> 8) & 0xFF);
+  }
+
+  @Override
+  public void finish() throws IOException {
+    out.write(0x3B);
+    out.close();
+  }
+}
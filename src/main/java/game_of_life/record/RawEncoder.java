@@ -0,0 +1,42 @@
+package game_of_life.record;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import game_of_life.types.Tribe;
+
+/**
+ * Writes frames back to back as raw 24-bit RGB, one pixel per cell and no
+ * header, which video tools read as is, for example
+ * {@code ffmpeg -f rawvideo -pix_fmt rgb24 -s <cols>x<rows> -i run.rgb run.mp4}.
+ */
+final class RawEncoder implements FrameEncoder {
+  private static final Tribe[] TRIBES = Tribe.values();
+
+  private final OutputStream out;
+  /** One row of pixels; rows are written one by one, so boards of any size fit. */
+  private final byte[] pixels;
+
+  RawEncoder(OutputStream out, int rows, int cols) {
+    this.out = out;
+    this.pixels = new byte[cols * 3];
+  }
+
+  @Override
+  public void encode(byte[] cells) throws IOException {
+    for (int from = 0; from < cells.length; from += pixels.length / 3) {
+      for (int idx = from, pixel = 0; pixel < pixels.length; idx++, pixel += 3) {
+        int rgb = TRIBES[cells[idx]].getRgb();
+        pixels[pixel] = (byte) (rgb >>> 16);
+        pixels[pixel + 1] = (byte) (rgb >>> 8);
+        pixels[pixel + 2] = (byte) rgb;
+      }
+      out.write(pixels);
+    }
+  }
+
+  @Override
+  public void finish() throws IOException {
+    out.close();
+  }
+}
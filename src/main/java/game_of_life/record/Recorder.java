@@ -0,0 +1,155 @@
+package game_of_life.record;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import game_of_life.engine.Grid;
+
+/**
+ * Streams generations to an animation file as they are computed. The
+ * simulation thread only copies the cells into one of a few reusable buffers
+ * and queues it; an encoder thread turns queued buffers into frames. When
+ * every buffer is still waiting to be encoded the generation is dropped
+ * instead, so recording never holds up the game.
+ */
+public class Recorder {
+  private static final byte[] END = new byte[0];
+
+  private final FrameEncoder encoder;
+  private final BlockingQueue<byte[]> queue;
+  private final BlockingQueue<byte[]> free;
+  private final Thread thread;
+  private final AtomicLong recorded = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private volatile IOException failure;
+  private boolean closed;
+
+  private Recorder(FrameEncoder encoder, int cells, int capacity) {
+    this.encoder = encoder;
+    this.queue = new ArrayBlockingQueue<>(capacity + 1);
+    this.free = new ArrayBlockingQueue<>(capacity);
+    for (int i = 0; i < capacity; i++)
+      free.add(new byte[cells]);
+
+    thread = new Thread(this::encode, "recorder");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Starts recording to {@code path}: an animated GIF if it ends in
+   * {@code .gif}, raw RGB frames otherwise, see {@link RawEncoder}.
+   *
+   * @param delayMillis how long a GIF shows each generation
+   * @param capacity    generations that may wait to be encoded
+   */
+  public static Recorder open(Path path, int rows, int cols, int delayMillis, int capacity) throws IOException {
+    int cells = Grid.cellCount(rows, cols);
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null)
+      Files.createDirectories(parent);
+
+    OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+    try {
+      FrameEncoder encoder = path.getFileName().toString().toLowerCase().endsWith(".gif")
+          ? new GifEncoder(out, rows, cols, delayMillis)
+          : new RawEncoder(out, rows, cols);
+      return new Recorder(encoder, cells, Math.max(capacity, 1));
+    } catch (IOException e) {
+      out.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Queues the grid as the next frame, or drops it if the encoder is behind.
+   * Must be called between two steps.
+   *
+   * @return whether the frame was queued
+   */
+  public boolean offer(Grid grid) {
+    byte[] cells = free.poll();
+    if (cells == null || failure != null) {
+      if (cells != null)
+        free.add(cells);
+      dropped.incrementAndGet();
+      return false;
+    }
+
+    grid.copyTo(cells);
+    queue.add(cells);
+    return true;
+  }
+
+  private void encode() {
+    try {
+      while (true) {
+        byte[] cells = queue.take();
+        if (cells == END)
+          break;
+
+        try {
+          if (failure == null) {
+            encoder.encode(cells);
+            recorded.incrementAndGet();
+          } else {
+            dropped.incrementAndGet();
+          }
+        } catch (IOException e) {
+          failure = e;
+          dropped.incrementAndGet();
+        }
+        free.add(cells);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Frames written so far.
+   */
+  public long getRecorded() {
+    return recorded.get();
+  }
+
+  /**
+   * Generations left out because the encoder was behind or had failed.
+   */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Encodes the frames still queued and completes the file.
+   *
+   * @throws IOException if writing any frame or completing the file failed
+   */
+  public synchronized void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+
+    queue.add(END);
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    try {
+      encoder.finish();
+    } catch (IOException e) {
+      if (failure == null)
+        failure = e;
+    }
+    if (failure != null)
+      throw failure;
+  }
+}
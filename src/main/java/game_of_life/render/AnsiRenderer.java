@@ -0,0 +1,232 @@
+package game_of_life.render;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import game_of_life.engine.Grid;
+import game_of_life.types.Tribe;
+import game_of_life.utils.Color;
+
+/**
+ * Draws generations through a {@link Viewport} on an ANSI terminal. The first
+ * frame (or the first one after {@link #invalidate()} or after the viewport
+ * moved) clears the screen and draws the whole window;
+ * after that only the cells that changed since the previous frame are sent,
+ * each behind a cursor move unless the cursor is already there. Colour codes
+ * are sent only when the colour changes, and every frame goes out in a single
+ * write.
+ */
+public class AnsiRenderer {
+  private static final Tribe[] TRIBES = Tribe.values();
+  private static final byte[] CLEAR = bytes("\033[H\033[2J");
+  private static final byte[] FOOTER = bytes("e) leave | p) pause/start | w/a/s/d) move | +/-) zoom | f) fit | b/n) back/forward | g <n>) seek | ");
+  private static final byte[] DEFAULT_COLOR = bytes(Color.c_default());
+  private static final byte[][] COLORS = new byte[TRIBES.length][];
+  private static final byte[] SIGILS = new byte[TRIBES.length];
+
+  static {
+    for (Tribe tribe : TRIBES) {
+      COLORS[tribe.ordinal()] = bytes(tribe.getColor());
+      SIGILS[tribe.ordinal()] = bytes(tribe.getSigil())[0];
+    }
+  }
+
+  private final PrintStream out;
+
+  /** Tribe ordinals currently on screen; null when the screen must be redrawn. */
+  private byte[] drawn;
+  private int rows;
+  private int cols;
+  /** Viewport position the screen was drawn at. */
+  private int top;
+  private int left;
+  private int zoom;
+  /** Width of the row numbers, including the space after them. */
+  private int labelWidth;
+
+  private byte[] buffer = new byte[0];
+  private int length;
+  /** 1-based screen position of the cursor, row 0 when unknown. */
+  private int cursorRow;
+  private int cursorCol;
+  private byte[] color;
+
+  private long frames;
+  private long bytesWritten;
+  private int lastFrameBytes;
+
+  public AnsiRenderer() {
+    this(System.out);
+  }
+
+  public AnsiRenderer(PrintStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Makes the next frame redraw the whole screen, e.g. after something else
+   * has printed over the board.
+   */
+  public void invalidate() {
+    drawn = null;
+  }
+
+  /**
+   * Draws the whole grid, which must fit the terminal, and returns the number of bytes written.
+   */
+  public int render(Grid grid) {
+    return render(new Viewport(grid.getRows(), grid.getCols()).show(grid));
+  }
+
+  /**
+   * Draws the window of the viewport and returns the number of bytes written.
+   */
+  public int render(Viewport viewport) {
+    length = 0;
+    // Anything may have been printed since the last frame; start from a known state.
+    cursorRow = 0;
+    color = DEFAULT_COLOR;
+
+    if (drawn == null || viewport.getRows() != rows || viewport.getCols() != cols
+        || viewport.getTop() != top || viewport.getLeft() != left || viewport.getZoom() != zoom)
+      redraw(viewport);
+    else
+      drawChanges(viewport);
+
+    if (length > 0) {
+      // Park the cursor below the board so that echoed input does not land on it.
+      moveTo(rows + 2, 1);
+      setColor(DEFAULT_COLOR);
+      out.write(buffer, 0, length);
+      out.flush();
+    }
+
+    frames++;
+    bytesWritten += length;
+    lastFrameBytes = length;
+    return length;
+  }
+
+  public long getFrames() {
+    return frames;
+  }
+
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  public int getLastFrameBytes() {
+    return lastFrameBytes;
+  }
+
+  public double getMeanFrameBytes() {
+    return frames > 0 ? (double) bytesWritten / frames : 0;
+  }
+
+  private void redraw(Viewport viewport) {
+    // Read the position before the cells: if it moves meanwhile, the next frame redraws again.
+    top = viewport.getTop();
+    left = viewport.getLeft();
+    zoom = viewport.getZoom();
+    rows = viewport.getRows();
+    cols = viewport.getCols();
+    labelWidth = Math.max(Integer.toString(viewport.boardRow(rows - 1) + 1).length(), 2) + 1;
+    drawn = new byte[rows * cols];
+    byte[] status = bytes(viewport.describe());
+    // Room for a full board plus a colour change every few cells; grows if that is not enough.
+    reserve(CLEAR.length + rows * (labelWidth + cols * 3 + 16) + FOOTER.length + status.length + 64);
+
+    append(CLEAR);
+    for (int row = 0; row < rows; row++) {
+      setColor(DEFAULT_COLOR);
+      int label = viewport.boardRow(row) + 1;
+      for (int i = Integer.toString(label).length(); i < labelWidth - 1; i++)
+        append((byte) ' ');
+      appendNumber(label);
+      append((byte) ' ');
+
+      for (int col = 0; col < cols; col++) {
+        byte tribe = (byte) viewport.get(row, col).ordinal();
+        drawn[row * cols + col] = tribe;
+        drawCell(tribe);
+      }
+      append((byte) '\n');
+    }
+    setColor(DEFAULT_COLOR);
+    append(FOOTER);
+    append(status);
+  }
+
+  private void drawChanges(Grid grid) {
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int idx = row * cols + col;
+        byte tribe = (byte) grid.get(row, col).ordinal();
+        if (drawn[idx] == tribe)
+          continue;
+
+        drawn[idx] = tribe;
+        moveTo(row + 1, labelWidth + col + 1);
+        drawCell(tribe);
+        cursorCol++;
+      }
+    }
+  }
+
+  private void drawCell(byte tribe) {
+    // An empty cell is a blank, whose colour does not show.
+    if (TRIBES[tribe] != Tribe.NONE)
+      setColor(COLORS[tribe]);
+    append(SIGILS[tribe]);
+  }
+
+  private void moveTo(int row, int col) {
+    if (row == cursorRow && col == cursorCol)
+      return;
+
+    append((byte) '\033');
+    append((byte) '[');
+    appendNumber(row);
+    append((byte) ';');
+    appendNumber(col);
+    append((byte) 'H');
+    cursorRow = row;
+    cursorCol = col;
+  }
+
+  private void setColor(byte[] next) {
+    if (next == color)
+      return;
+    append(next);
+    color = next;
+  }
+
+  private void appendNumber(int value) {
+    if (value >= 10)
+      appendNumber(value / 10);
+    append((byte) ('0' + value % 10));
+  }
+
+  private void append(byte[] bytes) {
+    reserve(length + bytes.length);
+    System.arraycopy(bytes, 0, buffer, length, bytes.length);
+    length += bytes.length;
+  }
+
+  private void append(byte value) {
+    reserve(length + 1);
+    buffer[length++] = value;
+  }
+
+  private void reserve(int capacity) {
+    if (capacity > buffer.length) {
+      byte[] grown = new byte[Math.max(capacity, buffer.length * 2)];
+      System.arraycopy(buffer, 0, grown, 0, length);
+      buffer = grown;
+    }
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.US_ASCII);
+  }
+}
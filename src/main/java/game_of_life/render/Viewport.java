@@ -0,0 +1,168 @@
+package game_of_life.render;
+
+import java.util.Arrays;
+
+import game_of_life.engine.Grid;
+import game_of_life.types.Tribe;
+
+/**
+ * A window of at most {@code viewRows x viewCols} characters onto a board.
+ * At zoom {@code z} each character stands for a {@code z x z} block of cells
+ * and shows the tribe with the most living cells in it. Blocks are sampled on
+ * at most {@link #SAMPLES} rows and columns, so drawing costs the same however
+ * large the board is.
+ *
+ * The position is changed from the input thread while the game thread draws,
+ * so it is read through volatile fields and moves take the lock.
+ */
+public class Viewport implements Grid {
+  private static final int SAMPLES = 4;
+  private static final Tribe[] LIVING = Tribe.getTribes().toJavaArray(Tribe[]::new);
+
+  private final int viewRows;
+  private final int viewCols;
+
+  private volatile int top;
+  private volatile int left;
+  private volatile int zoom = 1;
+
+  private Grid board;
+  private int boardRows;
+  private int boardCols;
+  /** Living cells of each tribe in the block being drawn; only used by the game thread. */
+  private final int[] counts = new int[Tribe.values().length];
+
+  public Viewport(int viewRows, int viewCols) {
+    this.viewRows = Math.max(viewRows, 1);
+    this.viewCols = Math.max(viewCols, 1);
+  }
+
+  /**
+   * Points the viewport at the generation to draw.
+   */
+  public synchronized Viewport show(Grid board) {
+    this.board = board;
+    if (board.getRows() != boardRows || board.getCols() != boardCols) {
+      boardRows = board.getRows();
+      boardCols = board.getCols();
+      clamp();
+    }
+    return this;
+  }
+
+  /**
+   * Moves by a quarter of the window per step; positive steps go down and right.
+   */
+  public synchronized void pan(int rowSteps, int colSteps) {
+    top += rowSteps * Math.max(viewRows / 4, 1) * zoom;
+    left += colSteps * Math.max(viewCols / 4, 1) * zoom;
+    clamp();
+  }
+
+  public synchronized void zoomIn() {
+    setZoom(zoom / 2);
+  }
+
+  public synchronized void zoomOut() {
+    setZoom(Math.min(zoom * 2, fitZoom()));
+  }
+
+  /**
+   * Zooms out just far enough to show the whole board.
+   */
+  public synchronized void fit() {
+    top = 0;
+    left = 0;
+    setZoom(fitZoom());
+  }
+
+  /**
+   * Changes the zoom around the centre of the window.
+   */
+  private void setZoom(int next) {
+    next = Math.max(next, 1);
+    int centerRow = top + viewRows * zoom / 2;
+    int centerCol = left + viewCols * zoom / 2;
+    zoom = next;
+    top = centerRow - viewRows * zoom / 2;
+    left = centerCol - viewCols * zoom / 2;
+    clamp();
+  }
+
+  private int fitZoom() {
+    int fit = 1;
+    while (fit * viewRows < boardRows || fit * viewCols < boardCols)
+      fit *= 2;
+    return fit;
+  }
+
+  private void clamp() {
+    top = Math.max(Math.min(top, boardRows - viewRows * zoom), 0);
+    left = Math.max(Math.min(left, boardCols - viewCols * zoom), 0);
+  }
+
+  public int getTop() {
+    return top;
+  }
+
+  public int getLeft() {
+    return left;
+  }
+
+  public int getZoom() {
+    return zoom;
+  }
+
+  /**
+   * Board row of the first cell shown on the given row of the window.
+   */
+  public int boardRow(int row) {
+    return top + row * zoom;
+  }
+
+  public String describe() {
+    int rows = getRows();
+    int cols = getCols();
+    return "rows " + (top + 1) + "-" + Math.min(top + rows * zoom, boardRows)
+        + " cols " + (left + 1) + "-" + Math.min(left + cols * zoom, boardCols)
+        + " of " + boardRows + "x" + boardCols + " | zoom 1:" + zoom;
+  }
+
+  @Override
+  public int getRows() {
+    return Math.min(viewRows, (boardRows - top + zoom - 1) / zoom);
+  }
+
+  @Override
+  public int getCols() {
+    return Math.min(viewCols, (boardCols - left + zoom - 1) / zoom);
+  }
+
+  @Override
+  public Tribe get(int row, int col) {
+    int zoom = this.zoom;
+    int fromRow = top + row * zoom;
+    int fromCol = left + col * zoom;
+    if (zoom == 1)
+      return board.get(fromRow, fromCol);
+
+    int toRow = Math.min(fromRow + zoom, boardRows);
+    int toCol = Math.min(fromCol + zoom, boardCols);
+    int step = (zoom + SAMPLES - 1) / SAMPLES;
+    int[] counts = this.counts;
+    Arrays.fill(counts, 0);
+    for (int r = fromRow; r < toRow; r += step)
+      for (int c = fromCol; c < toCol; c += step)
+        counts[board.get(r, c).ordinal()]++;
+
+    Tribe dominant = Tribe.NONE;
+    int most = 0;
+    for (Tribe tribe : LIVING) {
+      if (counts[tribe.ordinal()] > most) {
+        most = counts[tribe.ordinal()];
+        dominant = tribe;
+      }
+    }
+    return dominant;
+  }
+}
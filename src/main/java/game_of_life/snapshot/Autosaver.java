@@ -0,0 +1,185 @@
+package game_of_life.snapshot;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import game_of_life.Settings;
+import game_of_life.engine.Grid;
+
+/**
+ * Saves a session every so many generations or seconds without holding up
+ * the simulation. At a generation boundary the simulation thread copies the
+ * cells into a buffer that is reused from one save to the next; a background
+ * thread writes it to a temporary file and renames that into place as
+ * {@code <name>.autosave-<generation>.gol}, then deletes all but the newest
+ * checkpoints. While a save is still being written, newer generations are not
+ * captured, so a slow disk makes saves rarer rather than blocking the game.
+ *
+ * Checkpoints after the generation a game was rewound to are deleted, see
+ * {@link #rewound(long)}, so the checkpoint of the highest generation is
+ * always the one written last.
+ */
+public class Autosaver {
+  private static final String INFIX = ".autosave-";
+  private static final String SUFFIX = ".gol";
+
+  private final Path directory;
+  private final String name;
+  private final long everyGenerations;
+  private final long everyNanos;
+  private final int keep;
+
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "autosave");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final AtomicBoolean writing = new AtomicBoolean();
+
+  private byte[] cells = new byte[0];
+  private long lastGeneration = Long.MIN_VALUE;
+  private long lastNanos = System.nanoTime();
+
+  /**
+   * @param everyGenerations save after this many generations; 0 to not count generations
+   * @param everySeconds     save after this many seconds; 0 to not count time
+   * @param keep             number of checkpoints kept
+   */
+  public Autosaver(Path directory, String name, long everyGenerations, long everySeconds, int keep) {
+    this.directory = directory;
+    this.name = name;
+    this.everyGenerations = everyGenerations;
+    this.everyNanos = TimeUnit.SECONDS.toNanos(everySeconds);
+    this.keep = Math.max(keep, 1);
+  }
+
+  /**
+   * Whether a save is due after the given generation.
+   */
+  public boolean isDue(long generation) {
+    // Also start counting again when the game was rewound.
+    if (lastGeneration == Long.MIN_VALUE || generation < lastGeneration)
+      lastGeneration = generation;
+    return (everyGenerations > 0 && generation - lastGeneration >= everyGenerations)
+        || (everyNanos > 0 && System.nanoTime() - lastNanos >= everyNanos);
+  }
+
+  /**
+   * Copies the grid and starts writing it in the background, unless the
+   * previous save is still being written. Must be called between two steps.
+   *
+   * @return whether a save was started
+   */
+  public boolean offer(Settings settings, long generation, Grid grid) {
+    if (!writing.compareAndSet(false, true))
+      return false;
+
+    int length = Grid.cellCount(grid.getRows(), grid.getCols());
+    if (cells.length != length)
+      cells = new byte[length];
+    grid.copyTo(cells);
+    Snapshot snapshot = new Snapshot(settings, generation, cells);
+    lastGeneration = generation;
+    lastNanos = System.nanoTime();
+
+    writer.execute(() -> {
+      try {
+        write(snapshot);
+      } catch (IOException e) {
+        System.err.println("Autosave of generation " + generation + " failed: " + e.getMessage());
+      } finally {
+        writing.set(false);
+      }
+    });
+    return true;
+  }
+
+  private void write(Snapshot snapshot) throws IOException {
+    Files.createDirectories(directory);
+    Path temp = Files.createTempFile(directory, name + INFIX, ".tmp");
+    try {
+      SnapshotFormat.write(temp, snapshot);
+      Files.move(temp, directory.resolve(name + INFIX + snapshot.getGeneration() + SUFFIX),
+          StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+
+    prune(snapshot.getGeneration());
+  }
+
+  /**
+   * Deletes the checkpoints after {@code generation} and all but the newest
+   * {@link #keep} of the rest.
+   */
+  private void prune(long generation) throws IOException {
+    List<Path> checkpoints = checkpoints(directory, name);
+    int kept = checkpoints.size();
+    while (kept > 0 && generationOf(checkpoints.get(kept - 1), name) > generation)
+      Files.deleteIfExists(checkpoints.get(--kept));
+    for (int i = 0; i < kept - keep; i++)
+      Files.deleteIfExists(checkpoints.get(i));
+  }
+
+  /**
+   * Forgets the checkpoints after the generation the game was rewound to, as
+   * that game will not be played; saves still being written go first.
+   */
+  public void rewound(long generation) {
+    writer.execute(() -> {
+      try {
+        prune(generation);
+      } catch (IOException e) {
+        System.err.println("Could not delete the autosaves after generation " + generation + ": " + e.getMessage());
+      }
+    });
+  }
+
+  /**
+   * Waits for the save being written, if any, and stops the writer thread.
+   */
+  public void close() {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * The checkpoints of a session, oldest generation first, which is also the
+   * order they were written in.
+   */
+  public static List<Path> checkpoints(Path directory, String name) throws IOException {
+    List<Path> checkpoints = new ArrayList<>();
+    if (!Files.isDirectory(directory))
+      return checkpoints;
+
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, name + INFIX + "*" + SUFFIX)) {
+      for (Path file : files)
+        if (generationOf(file, name) >= 0)
+          checkpoints.add(file);
+    }
+    checkpoints.sort((a, b) -> Long.compare(generationOf(a, name), generationOf(b, name)));
+    return checkpoints;
+  }
+
+  private static long generationOf(Path file, String name) {
+    String fileName = file.getFileName().toString();
+    try {
+      return Long.parseLong(fileName.substring((name + INFIX).length(), fileName.length() - SUFFIX.length()));
+    } catch (NumberFormatException | IndexOutOfBoundsException e) {
+      return -1;
+    }
+  }
+}
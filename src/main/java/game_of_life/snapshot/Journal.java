@@ -0,0 +1,454 @@
+package game_of_life.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import game_of_life.Settings;
+import game_of_life.engine.Grid;
+import game_of_life.types.Tribe;
+
+/**
+ * Append-only history of a game: a full keyframe every so many generations
+ * and the cells that changed in between, written sequentially to one file.
+ * Any recorded generation can be read back by loading the nearest keyframe
+ * before it and replaying the changes since. All numbers are big-endian.
+ *
+ * <pre>
+ * magic "GOLJ", u16 version, i32 keyframe interval
+ * the settings, see {@link Settings#write(ByteBuffer)}
+ * records: u8 kind ('K' or 'D'), i64 generation, i32 payload length, payload
+ * </pre>
+ *
+ * A keyframe ('K') holds the whole board as a cell stream, see
+ * {@link SnapshotFormat}. A delta ('D') holds the cells that changed since the
+ * previous record: a varint count, then for every changed cell the varint
+ * distance from the previous changed cell (counting from -1) and its tribe
+ * ordinal as a byte. Recording a generation that is not newer than the last
+ * one drops the records from it on, so a rewound game carries on in place.
+ *
+ * The journal holds at most {@link #MAX_BYTES} of records and
+ * {@link #MAX_RECORDS} records. Past either, it is rewritten from a keyframe
+ * in the newer half on, so a long game keeps its recent history in bounded
+ * space and memory.
+ */
+public class Journal {
+  private static final byte[] MAGIC = "GOLJ".getBytes(StandardCharsets.US_ASCII);
+  public static final int VERSION = 2;
+
+  private static final byte KEYFRAME = 'K';
+  private static final byte DELTA = 'D';
+  private static final int RECORD_HEADER = 1 + 8 + 4;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  static final long MAX_BYTES = 256L << 20;
+  static final int MAX_RECORDS = 1 << 18;
+
+  private final Path path;
+  private FileChannel channel;
+  /** File offset of the first record. */
+  private final long start;
+  private final long maxBytes;
+  private final int maxRecords;
+  private final Settings settings;
+  private final int keyframeInterval;
+
+  /** Generation, file offset and kind of every record, in file order. */
+  private long[] generations = new long[64];
+  private long[] offsets = new long[64];
+  private boolean[] keyframes = new boolean[64];
+  private int size;
+  /** File offset after the last record, including the ones still buffered. */
+  private long end;
+
+  private final ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+  private final Payload payload = new Payload();
+  private byte[] cells;
+  /** Cells of the last record; not valid after opening or dropping records. */
+  private byte[] previous;
+  private boolean previousValid;
+  private long lastKeyframe;
+
+  /**
+   * The payload of the record being written, reused from one record to the next.
+   */
+  private static final class Payload extends ByteArrayOutputStream {
+    ByteBuffer view() {
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+  }
+
+  private Journal(Path path, FileChannel channel, Settings settings, int keyframeInterval, long start,
+      long maxBytes, int maxRecords) {
+    this.path = path;
+    this.channel = channel;
+    this.settings = settings.copy();
+    this.keyframeInterval = Math.max(keyframeInterval, 1);
+    this.start = start;
+    this.end = start;
+    this.maxBytes = maxBytes;
+    this.maxRecords = Math.max(maxRecords, 2);
+    this.cells = new byte[Grid.cellCount(settings.rows, settings.cols)];
+    this.previous = new byte[cells.length];
+  }
+
+  /**
+   * Starts a new journal, replacing any file at {@code path}.
+   *
+   * @param keyframeInterval generations between two keyframes
+   */
+  public static Journal create(Path path, Settings settings, int keyframeInterval) throws IOException {
+    return create(path, settings, keyframeInterval, MAX_BYTES, MAX_RECORDS);
+  }
+
+  static Journal create(Path path, Settings settings, int keyframeInterval, long maxBytes, int maxRecords)
+      throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null)
+      Files.createDirectories(parent);
+
+    ByteBuffer header = ByteBuffer.allocate(256);
+    header.put(MAGIC);
+    header.putShort((short) VERSION);
+    header.putInt(keyframeInterval);
+    settings.write(header);
+    header.flip();
+
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      Journal journal = new Journal(path, channel, settings, keyframeInterval, header.remaining(), maxBytes,
+          maxRecords);
+      journal.writeFully(header, 0);
+      return journal;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a journal to read and append to it. A record cut short by a crash
+   * is dropped.
+   *
+   * @throws IOException on bad magic, a newer version or a corrupt header
+   */
+  public static Journal open(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      ByteBuffer header = ByteBuffer.allocate((int) Math.min(channel.size(), 256));
+      while (header.hasRemaining() && channel.read(header, header.position()) > 0)
+        ;
+      header.flip();
+
+      Settings settings;
+      int keyframeInterval;
+      try {
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC))
+          throw new IOException("Not a journal: " + path);
+        int version = header.getShort() & 0xFFFF;
+        if (version > VERSION)
+          throw new IOException("Unsupported journal version " + version + ": " + path);
+        keyframeInterval = header.getInt();
+        settings = Settings.read(header, version);
+      } catch (BufferUnderflowException | IllegalArgumentException e) {
+        throw new IOException("Corrupt journal: " + path, e);
+      }
+
+      Journal journal = new Journal(path, channel, settings, keyframeInterval, header.position(), MAX_BYTES,
+          MAX_RECORDS);
+      journal.scan();
+      return journal;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void scan() throws IOException {
+    long fileSize = channel.size();
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+    while (end + RECORD_HEADER <= fileSize) {
+      header.clear();
+      readFully(header, end);
+      header.flip();
+      byte kind = header.get();
+      long generation = header.getLong();
+      int length = header.getInt();
+      if ((kind != KEYFRAME && kind != DELTA) || length < 0 || end + RECORD_HEADER + length > fileSize)
+        break;
+      if (size == 0 && kind != KEYFRAME)
+        break;
+
+      index(generation, end, kind == KEYFRAME);
+      end += RECORD_HEADER + length;
+    }
+    if (end < fileSize)
+      channel.truncate(end);
+  }
+
+  public Settings getSettings() {
+    return settings.copy();
+  }
+
+  /**
+   * Appends a generation of the game: a keyframe if one is due, the cells
+   * that changed since the last record otherwise.
+   */
+  public synchronized void record(long generation, Grid grid) throws IOException {
+    if (size > 0 && generation <= generations[size - 1])
+      dropFrom(generation);
+    if (size >= maxRecords || end - start >= maxBytes)
+      compact();
+
+    grid.copyTo(cells);
+    boolean keyframe = !previousValid || generation - lastKeyframe >= keyframeInterval;
+    payload.reset();
+    if (keyframe) {
+      payload.writeBytes(SnapshotFormat.encodeCells(cells));
+      lastKeyframe = generation;
+    } else {
+      encodeChanges();
+    }
+    append(keyframe ? KEYFRAME : DELTA, generation);
+
+    byte[] swap = previous;
+    previous = cells;
+    cells = swap;
+    previousValid = true;
+  }
+
+  private void encodeChanges() {
+    int count = 0;
+    for (int idx = 0; idx < cells.length; idx++)
+      if (cells[idx] != previous[idx])
+        count++;
+
+    SnapshotFormat.putVarint(payload, count);
+    int last = -1;
+    for (int idx = 0; idx < cells.length; idx++) {
+      if (cells[idx] != previous[idx]) {
+        SnapshotFormat.putVarint(payload, idx - last);
+        payload.write(cells[idx]);
+        last = idx;
+      }
+    }
+  }
+
+  private void append(byte kind, long generation) throws IOException {
+    int length = payload.size();
+    if (pending.remaining() < RECORD_HEADER + length)
+      flush();
+
+    index(generation, end, kind == KEYFRAME);
+    if (RECORD_HEADER + length > pending.capacity()) {
+      ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+      header.put(kind).putLong(generation).putInt(length).flip();
+      writeFully(header, end);
+      writeFully(payload.view(), end + RECORD_HEADER);
+    } else {
+      pending.put(kind).putLong(generation).putInt(length);
+      pending.put(payload.view());
+    }
+    end += RECORD_HEADER + length;
+  }
+
+  private void index(long generation, long offset, boolean keyframe) {
+    if (size == generations.length) {
+      generations = Arrays.copyOf(generations, size * 2);
+      offsets = Arrays.copyOf(offsets, size * 2);
+      keyframes = Arrays.copyOf(keyframes, size * 2);
+    }
+    generations[size] = generation;
+    offsets[size] = offset;
+    keyframes[size] = keyframe;
+    size++;
+  }
+
+  /**
+   * Forgets the older half of the history: the file is rewritten from the
+   * first keyframe that leaves at most half of each limit, or the newest
+   * keyframe if none does, into a temporary file that then replaces it.
+   * Without a keyframe to start from, the next record is made one.
+   */
+  private void compact() throws IOException {
+    int first = -1;
+    for (int record = 1; record < size; record++) {
+      if (!keyframes[record])
+        continue;
+      first = record;
+      if (size - record <= maxRecords / 2 && end - offsets[record] <= maxBytes / 2)
+        break;
+    }
+    if (first <= 0) {
+      previousValid = false;
+      return;
+    }
+
+    flush();
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      transfer(0, start, out, 0);
+      transfer(offsets[first], end - offsets[first], out, start);
+      out.force(false);
+    }
+    channel.close();
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+    long shift = offsets[first] - start;
+    size -= first;
+    System.arraycopy(generations, first, generations, 0, size);
+    System.arraycopy(offsets, first, offsets, 0, size);
+    System.arraycopy(keyframes, first, keyframes, 0, size);
+    for (int record = 0; record < size; record++)
+      offsets[record] -= shift;
+    end -= shift;
+  }
+
+  private void transfer(long position, long count, FileChannel out, long outPosition) throws IOException {
+    while (count > 0) {
+      long copied = out.transferFrom(channel.position(position), outPosition, count);
+      if (copied <= 0)
+        throw new IOException("Journal ends early");
+      position += copied;
+      outPosition += copied;
+      count -= copied;
+    }
+  }
+
+  private void dropFrom(long generation) throws IOException {
+    flush();
+    int first = floor(generation - 1) + 1;
+    if (first < size)
+      end = offsets[first];
+    size = first;
+    channel.truncate(end);
+    previousValid = false;
+  }
+
+  /**
+   * Writes out the records still buffered.
+   */
+  public synchronized void flush() throws IOException {
+    pending.flip();
+    writeFully(pending, end - pending.remaining());
+    pending.clear();
+  }
+
+  /**
+   * The board at {@code generation}, or at the newest recorded generation
+   * before it if that one was not recorded.
+   *
+   * @return null if no generation up to {@code generation} was recorded
+   */
+  public synchronized Snapshot seek(long generation) throws IOException {
+    int target = floor(generation);
+    if (target < 0)
+      return null;
+
+    flush();
+    int keyframe = target;
+    while (!keyframes[keyframe])
+      keyframe--;
+
+    int length = cells.length;
+    byte[] board;
+    try {
+      board = SnapshotFormat.decodeCells(readPayload(keyframe), length);
+      for (int record = keyframe + 1; record <= target; record++)
+        applyChanges(readPayload(record), board);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IOException("Corrupt journal record", e);
+    }
+    return new Snapshot(settings, generations[target], board);
+  }
+
+  private static void applyChanges(byte[] changes, byte[] board) throws IOException {
+    ByteBuffer in = ByteBuffer.wrap(changes);
+    int count = SnapshotFormat.getVarint(in);
+    int idx = -1;
+    for (int i = 0; i < count; i++) {
+      idx += SnapshotFormat.getVarint(in);
+      byte tribe = in.get();
+      if (tribe < 0 || tribe > Tribe.NONE.ordinal())
+        throw new IOException("Unknown tribe " + tribe);
+      board[idx] = tribe;
+    }
+  }
+
+  private byte[] readPayload(int record) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(recordLength(record) - RECORD_HEADER);
+    readFully(buffer, offsets[record] + RECORD_HEADER);
+    return buffer.array();
+  }
+
+  private int recordLength(int record) {
+    long next = record + 1 < size ? offsets[record + 1] : end;
+    return (int) (next - offsets[record]);
+  }
+
+  /**
+   * The newest recorded generation before {@code generation}, or -1.
+   */
+  public synchronized long previousGeneration(long generation) {
+    int record = floor(generation - 1);
+    return record >= 0 ? generations[record] : -1;
+  }
+
+  /**
+   * The oldest recorded generation after {@code generation}, or -1.
+   */
+  public synchronized long nextGeneration(long generation) {
+    int record = floor(generation) + 1;
+    return record < size ? generations[record] : -1;
+  }
+
+  /**
+   * Index of the last record at or before {@code generation}, -1 if there is none.
+   */
+  private int floor(long generation) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (generations[mid] <= generation)
+        low = mid + 1;
+      else
+        high = mid - 1;
+    }
+    return high;
+  }
+
+  public synchronized void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0)
+        throw new IOException("Journal ends early");
+      position += read;
+    }
+  }
+
+  private void writeFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining())
+      position += channel.write(buffer, position);
+  }
+}
@@ -0,0 +1,66 @@
+package game_of_life.snapshot;
+
+import game_of_life.Settings;
+import game_of_life.engine.Grid;
+import game_of_life.types.Tribe;
+
+/**
+ * One generation of a game together with the settings it is played with:
+ * everything needed to carry on playing it.
+ */
+public class Snapshot implements Grid {
+  private static final Tribe[] TRIBES = Tribe.values();
+
+  private final Settings settings;
+  private final long generation;
+  private final byte[] cells;
+
+  /**
+   * Copies the cells of {@code grid}, which must be {@code settings.rows x settings.cols}.
+   */
+  public Snapshot(Settings settings, long generation, Grid grid) {
+    this(settings, generation, new byte[Grid.cellCount(settings.rows, settings.cols)]);
+    grid.copyTo(cells);
+  }
+
+  /**
+   * Uses {@code cells}, row-major tribe ordinals, as they are rather than copying them.
+   */
+  public Snapshot(Settings settings, long generation, byte[] cells) {
+    this.settings = settings.copy();
+    this.generation = generation;
+    this.cells = cells;
+  }
+
+  public Settings getSettings() {
+    return settings.copy();
+  }
+
+  public long getGeneration() {
+    return generation;
+  }
+
+  byte[] getCells() {
+    return cells;
+  }
+
+  @Override
+  public int getRows() {
+    return settings.rows;
+  }
+
+  @Override
+  public int getCols() {
+    return settings.cols;
+  }
+
+  @Override
+  public Tribe get(int row, int col) {
+    return TRIBES[cells[row * settings.cols + col]];
+  }
+
+  @Override
+  public void copyTo(byte[] cells) {
+    System.arraycopy(this.cells, 0, cells, 0, this.cells.length);
+  }
+}
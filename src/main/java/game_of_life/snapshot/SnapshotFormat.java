@@ -0,0 +1,211 @@
+package game_of_life.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import game_of_life.Settings;
+import game_of_life.engine.Grid;
+import game_of_life.types.Tribe;
+
+/**
+ * Reads and writes {@link Snapshot}s in a compact, versioned binary format,
+ * without Java serialization. All numbers are big-endian.
+ *
+ * <pre>
+ * magic "GOLS", u16 version, u16 flags (bit 0: cells deflated)
+ * i64 generation
+ * the settings, see {@link Settings#write(ByteBuffer)}
+ * i32 length of the cell stream, i32 length of the stored (maybe deflated) cell stream
+ * cell stream
+ * </pre>
+ *
+ * The cell stream is a sequence of
+ * records covering the board in row-major order: a varint count of empty
+ * cells, a varint count of literal cells, and the literal cells at 2 bits per
+ * cell (tribe ordinals, four per byte, lowest bits first). A literal run only
+ * ends at {@link #GAP} empty cells in a row, where starting a new record is cheaper.
+ */
+public final class SnapshotFormat {
+  private static final byte[] MAGIC = "GOLS".getBytes(StandardCharsets.US_ASCII);
+  public static final int VERSION = 2;
+
+  private static final int FLAG_DEFLATE = 1;
+  private static final int GAP = 8;
+  private static final byte NONE = (byte) Tribe.NONE.ordinal();
+
+  private SnapshotFormat() {
+  }
+
+  /**
+   * Writes the snapshot, deflating the cells if its settings ask for it.
+   */
+  public static void write(Path path, Snapshot snapshot) throws IOException {
+    Settings settings = snapshot.getSettings();
+    boolean deflate = settings.deflate;
+    byte[] cells = encodeCells(snapshot.getCells());
+    byte[] stored = deflate ? deflate(cells) : cells;
+
+    ByteBuffer header = ByteBuffer.allocate(256);
+    header.put(MAGIC);
+    header.putShort((short) VERSION);
+    header.putShort((short) (deflate ? FLAG_DEFLATE : 0));
+    header.putLong(snapshot.getGeneration());
+    settings.write(header);
+    header.putInt(cells.length);
+    header.putInt(stored.length);
+    header.flip();
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer[] buffers = {header, ByteBuffer.wrap(stored)};
+      while (buffers[1].hasRemaining())
+        channel.write(buffers);
+    }
+  }
+
+  public static Snapshot read(Path path) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE)
+        throw new IOException("Snapshot too large: " + path);
+      buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+        ;
+      buffer.flip();
+    }
+
+    try {
+      byte[] magic = new byte[MAGIC.length];
+      buffer.get(magic);
+      if (!Arrays.equals(magic, MAGIC))
+        throw new IOException("Not a snapshot: " + path);
+      int version = buffer.getShort() & 0xFFFF;
+      if (version > VERSION)
+        throw new IOException("Unsupported snapshot version " + version + ": " + path);
+      int flags = buffer.getShort() & 0xFFFF;
+
+      long generation = buffer.getLong();
+      Settings settings = Settings.read(buffer, version);
+      settings.deflate = (flags & FLAG_DEFLATE) != 0;
+      int cellsLength = buffer.getInt();
+      byte[] stored = new byte[buffer.getInt()];
+      buffer.get(stored);
+
+      byte[] encoded = (flags & FLAG_DEFLATE) != 0 ? inflate(stored, cellsLength) : stored;
+      return new Snapshot(settings, generation, decodeCells(encoded, Grid.cellCount(settings.rows, settings.cols)));
+    } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new IOException("Corrupt snapshot: " + path, e);
+    }
+  }
+
+  static byte[] encodeCells(byte[] cells) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(cells.length / 16 + 16);
+    int idx = 0;
+    while (idx < cells.length) {
+      int start = idx;
+      while (idx < cells.length && cells[idx] == NONE)
+        idx++;
+      int empty = idx - start;
+
+      start = idx;
+      int lastLiving = idx - 1;
+      for (int end = idx; end < cells.length && end - lastLiving <= GAP; end++)
+        if (cells[end] != NONE)
+          lastLiving = end;
+      int literal = lastLiving + 1 - start;
+
+      putVarint(out, empty);
+      putVarint(out, literal);
+      for (int i = 0; i < literal; i += 4) {
+        int packed = 0;
+        for (int j = 0; j < 4 && i + j < literal; j++)
+          packed |= cells[start + i + j] << (2 * j);
+        out.write(packed);
+      }
+      idx = start + literal;
+    }
+    return out.toByteArray();
+  }
+
+  static byte[] decodeCells(byte[] encoded, int length) throws IOException {
+    ByteBuffer in = ByteBuffer.wrap(encoded);
+    byte[] cells = new byte[length];
+    int idx = 0;
+    while (idx < length) {
+      int empty = getVarint(in);
+      int literal = getVarint(in);
+      if (empty < 0 || literal < 0 || (long) idx + empty + literal > length)
+        throw new IOException("Cell runs exceed the board");
+
+      Arrays.fill(cells, idx, idx + empty, NONE);
+      idx += empty;
+      for (int i = 0; i < literal; i += 4) {
+        int packed = in.get();
+        for (int j = 0; j < 4 && i + j < literal; j++)
+          cells[idx + i + j] = (byte) ((packed >>> (2 * j)) & 3);
+      }
+      idx += literal;
+    }
+    return cells;
+  }
+
+  static void putVarint(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  static int getVarint(ByteBuffer in) {
+    int value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = in.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0)
+        return value;
+    }
+  }
+
+  private static byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    deflater.setInput(data);
+    deflater.finish();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+    byte[] chunk = new byte[64 * 1024];
+    while (!deflater.finished())
+      out.write(chunk, 0, deflater.deflate(chunk));
+    deflater.end();
+    return out.toByteArray();
+  }
+
+  private static byte[] inflate(byte[] data, int length) throws IOException {
+    Inflater inflater = new Inflater();
+    inflater.setInput(data);
+    byte[] out = new byte[length];
+    try {
+      int read = 0;
+      while (read < length && !inflater.finished()) {
+        int n = inflater.inflate(out, read, length - read);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+          throw new IOException("Truncated cell stream");
+        read += n;
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt cell stream", e);
+    } finally {
+      inflater.end();
+    }
+    return out;
+  }
+}
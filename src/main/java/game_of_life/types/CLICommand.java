@@ -7,6 +7,8 @@ import game_of_life.utils.Pair;
 
 public enum CLICommand {
   NEW,
+  SIMULATE,
+  TOURNAMENT,
   RESUME,
   SWITCH,
   OPEN,
@@ -15,7 +17,8 @@ public enum CLICommand {
   SAVE_AS,
   HELP,
   EXIT,
-  INFO;
+  INFO,
+  STATS;
 
   public static Pair<CLICommand, String[]> read() {
     String[] input = Console.readInput().trim().split(" ");
@@ -0,0 +1,7 @@
+package game_of_life.types;
+
+public enum CycleDetectorType {
+  HISTORY,
+  WINDOW,
+  BRENT;
+}
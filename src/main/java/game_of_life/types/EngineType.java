@@ -0,0 +1,11 @@
+package game_of_life.types;
+
+public enum EngineType {
+  REFERENCE,
+  PRIMITIVE,
+  SPARSE,
+  HASHLIFE,
+  BITPLANE,
+  VECTOR,
+  MAPPED;
+}
@@ -0,0 +1,9 @@
+package game_of_life.types;
+
+public enum LayoutType {
+  KMEANS,
+  VORONOI,
+  HSTRIPES,
+  VSTRIPES,
+  PATTERN;
+}
@@ -0,0 +1,21 @@
+package game_of_life.types;
+
+/**
+ * The parts a generation and a frame are timed in, see
+ * {@link game_of_life.metrics.Metrics}. The first three run on the simulation
+ * thread once per generation, the last three on the game loop once per frame.
+ */
+public enum Phase {
+  /** Stepping the engine and swapping its buffers. */
+  COMPUTE,
+  /** Reading the census and hash and looking the state up in the cycle detector. */
+  HASH,
+  /** Handing the generation to the autosaver, the journal and the recorder. */
+  PERSIST,
+  /** Waiting for the simulation to publish a newer generation. */
+  AWAIT,
+  /** Drawing the frame on the terminal. */
+  RENDER,
+  /** Waiting out the rest of the frame. */
+  SLEEP;
+}
@@ -4,16 +4,7 @@ public enum State {
   RUNNING,
   CYCLING,
   TRIBE_VICTORIOUS,
-  EVERYONE_LOST;
-
-  private Tribe victoriousTribe;
-
-  public Tribe getVictoriousTribe() {
-    return victoriousTribe;
-  }
-
-  public State setVictoriousTribe(Tribe tribe) {
-    this.victoriousTribe = tribe;
-    return this;
-  }
+  EVERYONE_LOST,
+  /** A step threw; the game was stopped at the generation before it. */
+  FAILED;
 }
@@ -4,22 +4,26 @@ import game_of_life.utils.Color;
 import io.vavr.collection.Vector;
 
 public enum Tribe {
-  VIKINGS(Color.blue(), "A"),
-  WARRIORS(Color.green(), "B"),
-  MAGES(Color.red(), "C"),
+  // Color.blue() prints in red and Color.red() in blue, so the RGB values follow the screen.
+  VIKINGS(Color.blue(), "A", 0xCD3131),
+  WARRIORS(Color.green(), "B", 0x0DBC79),
+  MAGES(Color.red(), "C", 0x2472C8),
   NONE;
 
   private final String color;
   private final String sigil;
+  private final int rgb;
 
   Tribe() {
     this.color = Color.c_default();
     this.sigil = " ";
+    this.rgb = 0x000000;
   }
 
-  Tribe(String color, String sigil) {
+  Tribe(String color, String sigil, int rgb) {
     this.color = color;
     this.sigil = sigil;
+    this.rgb = rgb;
   }
 
   public static Vector<Tribe> getTribes() {
@@ -31,6 +35,21 @@ public enum Tribe {
     return tribe != Tribe.NONE;
   }
 
+  public String getColor() {
+    return color;
+  }
+
+  public String getSigil() {
+    return sigil;
+  }
+
+  /**
+   * Colour of the tribe in images, as 0xRRGGBB.
+   */
+  public int getRgb() {
+    return rgb;
+  }
+
   @Override
   public String toString() {
     return this.color + this.sigil;
@@ -3,6 +3,7 @@ package game_of_life.utils;
 import java.util.Scanner;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class Console {
   private static final BlockingQueue<String> inputQueue = new LinkedBlockingQueue<>();
@@ -46,6 +47,18 @@ public class Console {
     }
   }
 
+  /**
+   * The next line typed, or null if none is typed within {@code millis}.
+   */
+  public static String pollInput(long millis) {
+    try {
+      return inputQueue.poll(millis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
   public static String getParam(String[] params, int idx) {
     if (params.length - 1 < idx) {
       return null;
@@ -1,56 +1,219 @@
 package game_of_life.utils;
 
-import io.vavr.collection.List;
-import io.vavr.collection.Vector;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * k-means over integer points kept as two coordinate arrays. Centroids are
+ * seeded with k-means++ and refined until no centroid moves by more than
+ * {@link #TOLERANCE} cells. The points are cut into fixed chunks that are
+ * assigned on the given pool; sums are exact longs merged in chunk order, so
+ * a seed always gives the same clusters, whatever the parallelism.
+ */
 public class KMeansClustering {
   private static final int MAX_ITERATIONS = 70;
+  // Centroids closer than half a cell to where they were hardly move any point.
+  private static final double TOLERANCE = 0.5;
+  private static final int CHUNK = 1 << 14;
 
-  @SuppressWarnings("unused")
-  public static Vector<Vector<Point<Integer>>> kMeansCluster(Vector<Point<Integer>> points, int k) {
+  private final int[] xs;
+  private final int[] ys;
+  private final int size;
+  private final int k;
+  private final ForkJoinPool pool;
+  private final int chunks;
 
-    Vector<Point<Double>> centroids = initializeCentroids(points, k);
-    Vector<Vector<Point<Integer>>> clusters = Vector.empty();
+  private final int[] labels;
+  private final double[] centroidXs;
+  private final double[] centroidYs;
+  /** Per chunk: sum of x, sum of y and count of every cluster, then whether any label changed. */
+  private final long[][] partials;
+  /** Squared distance of every point to its nearest centroid so far, while seeding. */
+  private long[] distances;
 
-    for (Integer _iteration : List.rangeClosed(0, MAX_ITERATIONS)) {
-      clusters = centroids.map(centroid -> Vector.empty());
-      clusters = assignToCentroids(points, clusters, centroids);
-      Vector<Point<Double>> new_centroids = updateCentroids(clusters);
+  private KMeansClustering(int[] xs, int[] ys, int size, int k, ForkJoinPool pool) {
+    this.xs = xs;
+    this.ys = ys;
+    this.size = size;
+    this.k = k;
+    this.pool = pool;
+    this.chunks = (size + CHUNK - 1) / CHUNK;
+    this.labels = new int[size];
+    this.centroidXs = new double[k];
+    this.centroidYs = new double[k];
+    this.partials = new long[chunks][3 * k + 1];
+    Arrays.fill(labels, -1);
+  }
+
+  /**
+   * Clusters the first {@code size} points {@code (xs[i], ys[i])} into
+   * {@code k} groups.
+   *
+   * @param pool runs the assignment steps; {@code null} to run them on the calling thread
+   * @return the cluster, from 0 to k - 1, of every point
+   */
+  public static int[] cluster(int[] xs, int[] ys, int size, int k, Random random, ForkJoinPool pool) {
+    if (size == 0 || k <= 0)
+      return new int[size];
 
-      if (centroids == new_centroids)
+    KMeansClustering kMeans = new KMeansClustering(xs, ys, size, Math.min(k, size), pool);
+    kMeans.seed(random);
+    for (int iteration = 0; iteration <= MAX_ITERATIONS; iteration++)
+      if (!kMeans.iterate())
         break;
+    return kMeans.labels;
+  }
+
+  /**
+   * k-means++: the first centroid is a random point, every next one a point
+   * picked with probability proportional to its squared distance to the
+   * nearest centroid chosen so far.
+   */
+  private void seed(Random random) {
+    distances = new long[size];
+    Arrays.fill(distances, Long.MAX_VALUE);
+    int picked = random.nextInt(size);
+
+    for (int centroid = 0; centroid < k; centroid++) {
+      centroidXs[centroid] = xs[picked];
+      centroidYs[centroid] = ys[picked];
+      if (centroid == k - 1)
+        break;
+
+      int x = xs[picked];
+      int y = ys[picked];
+      run((from, to, partial) -> {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+          long dx = xs[i] - x;
+          long dy = ys[i] - y;
+          distances[i] = Math.min(distances[i], dx * dx + dy * dy);
+          sum += distances[i];
+        }
+        partial[0] = sum;
+      });
+
+      long total = 0;
+      for (long[] partial : partials)
+        total += partial[0];
+      if (total == 0) {
+        // Fewer distinct points than clusters: the rest start on top of one another.
+        picked = random.nextInt(size);
+        continue;
+      }
+
+      long target = (long) (random.nextDouble() * total);
+      picked = 0;
+      for (long sum = distances[0]; sum <= target && picked < size - 1; sum += distances[++picked])
+        ;
+    }
+    distances = null;
+  }
+
+  /**
+   * Assigns every point to its nearest centroid and moves the centroids to the
+   * mean of their points.
+   *
+   * @return false once no point changed clusters or no centroid moved by more than {@link #TOLERANCE}
+   */
+  private boolean iterate() {
+    run((from, to, partial) -> {
+      Arrays.fill(partial, 0);
+      boolean changed = false;
+      for (int i = from; i < to; i++) {
+        int x = xs[i];
+        int y = ys[i];
+        int nearest = 0;
+        double best = Double.MAX_VALUE;
+        for (int centroid = 0; centroid < k; centroid++) {
+          double dx = x - centroidXs[centroid];
+          double dy = y - centroidYs[centroid];
+          double distance = dx * dx + dy * dy;
+          if (distance < best) {
+            best = distance;
+            nearest = centroid;
+          }
+        }
+
+        changed |= labels[i] != nearest;
+        labels[i] = nearest;
+        partial[3 * nearest] += x;
+        partial[3 * nearest + 1] += y;
+        partial[3 * nearest + 2]++;
+      }
+      partial[3 * k] = changed ? 1 : 0;
+    });
+
+    boolean changed = false;
+    long[] sums = new long[3 * k];
+    for (long[] partial : partials) {
+      for (int i = 0; i < sums.length; i++)
+        sums[i] += partial[i];
+      changed |= partial[3 * k] != 0;
     }
+    if (!changed)
+      return false;
 
-    return clusters;
+    double maxShift = 0;
+    for (int centroid = 0; centroid < k; centroid++) {
+      long count = sums[3 * centroid + 2];
+      // An empty cluster keeps its centroid.
+      if (count == 0)
+        continue;
+
+      double x = (double) sums[3 * centroid] / count;
+      double y = (double) sums[3 * centroid + 1] / count;
+      maxShift = Math.max(maxShift, Math.hypot(x - centroidXs[centroid], y - centroidYs[centroid]));
+      centroidXs[centroid] = x;
+      centroidYs[centroid] = y;
+    }
+    return maxShift > TOLERANCE;
   }
 
-  private static Vector<Point<Double>> initializeCentroids(Vector<Point<Integer>> points, int k) {
-    Random random = new Random();
-    return List.range(0, k)
-        .map(i -> points.get(random.nextInt(points.size())))
-        .map(point -> Point.from(point.getX().doubleValue(), point.getY().doubleValue()))
-        .toVector();
+  private interface ChunkAction {
+    /**
+     * Processes points {@code [from, to)}, leaving its results in {@code partial}.
+     */
+    void apply(int from, int to, long[] partial);
   }
 
-  private static Vector<Vector<Point<Integer>>> assignToCentroids(
-      Vector<Point<Integer>> points,
-      Vector<Vector<Point<Integer>>> clusters,
-      Vector<Point<Double>> centroids) {
-    return points.foldLeft(clusters, (acc, point) -> {
-      int closest_centroid_idx = centroids
-          .zipWithIndex()
-          .minBy(centroid_idx -> point.distance(Point.toIntPoint(centroid_idx._1())))
-          .map(centroid_idx -> centroid_idx._2())
-          .getOrElse(-1);
+  private void run(ChunkAction action) {
+    if (pool == null || pool.getParallelism() <= 1 || chunks <= 1) {
+      for (int chunk = 0; chunk < chunks; chunk++)
+        runChunk(action, chunk);
+    } else {
+      pool.invoke(new ChunkTask(action, 0, chunks));
+    }
+  }
 
-      return acc.update(closest_centroid_idx, cluster -> cluster.append(point));
-    });
+  private void runChunk(ChunkAction action, int chunk) {
+    action.apply(chunk * CHUNK, Math.min((chunk + 1) * CHUNK, size), partials[chunk]);
   }
 
-  private static Vector<Point<Double>> updateCentroids(Vector<Vector<Point<Integer>>> clusters) {
-    return clusters
-        .filter(cluster -> cluster.size() > 0)
-        .foldLeft(Vector.empty(), (centroids, cluster) -> centroids.append(Point.meanPoints(cluster)));
+  private class ChunkTask extends RecursiveAction {
+    private static final long serialVersionUID = 4305961273302716584L;
+
+    private final ChunkAction action;
+    private final int fromChunk;
+    private final int toChunk;
+
+    ChunkTask(ChunkAction action, int fromChunk, int toChunk) {
+      this.action = action;
+      this.fromChunk = fromChunk;
+      this.toChunk = toChunk;
+    }
+
+    @Override
+    protected void compute() {
+      if (toChunk - fromChunk == 1) {
+        runChunk(action, fromChunk);
+        return;
+      }
+
+      int middle = (fromChunk + toChunk) >>> 1;
+      invokeAll(new ChunkTask(action, fromChunk, middle), new ChunkTask(action, middle, toChunk));
+    }
   }
 }
@@ -0,0 +1,63 @@
+package game_of_life.utils;
+
+/**
+ * Open-addressing hash map from {@code long} keys to {@code int} values,
+ * with linear probing and no boxing. Any key is allowed.
+ */
+public class LongIntMap extends LongKeyedMap {
+  private int[] values;
+
+  public interface Visitor {
+    void accept(long key, int value);
+  }
+
+  public LongIntMap() {
+    this(0);
+  }
+
+  public LongIntMap(int expectedSize) {
+    super(expectedSize);
+    values = new int[valueSlots()];
+  }
+
+  public int get(long key, int missing) {
+    int slot = indexOf(key);
+    return slot >= 0 ? values[slot] : missing;
+  }
+
+  public void put(long key, int value) {
+    int slot = slotOf(key);
+    values[slot] = value;
+  }
+
+  /**
+   * Adds {@code delta} to the value of {@code key}, treating a missing key as 0.
+   */
+  public void addTo(long key, int delta) {
+    int slot = slotOf(key);
+    values[slot] += delta;
+  }
+
+  public void forEach(Visitor visitor) {
+    forEachSlot((key, slot) -> visitor.accept(key, values[slot]));
+  }
+
+  @Override
+  void moveValues(int[] targets, int length) {
+    int[] old = values;
+    values = new int[length];
+    for (int slot = 0; slot < old.length; slot++)
+      if (targets[slot] >= 0)
+        values[targets[slot]] = old[slot];
+  }
+
+  @Override
+  void moveValue(int from, int to) {
+    values[to] = values[from];
+  }
+
+  @Override
+  void clearValue(int slot) {
+    values[slot] = 0;
+  }
+}
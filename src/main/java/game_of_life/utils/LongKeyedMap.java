@@ -0,0 +1,167 @@
+package game_of_life.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table of {@code long} keys with linear probing and no
+ * boxing, shared by the maps of every value width. Subclasses keep their
+ * values in a primitive array, slot for slot with the keys, with one extra
+ * slot at the end for the value of the key that marks free slots, which is
+ * stored on the side so any key is allowed.
+ */
+abstract class LongKeyedMap {
+  private static final long FREE = 0L;
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private int size;
+  private int mask;
+  private boolean hasFreeKey;
+
+  LongKeyedMap(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2)
+      capacity <<= 1;
+    keys = new long[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Length of the value array, the free key's slot included.
+   */
+  final int valueSlots() {
+    return keys.length + 1;
+  }
+
+  /**
+   * Replaces the values with an array of {@code length} slots, moving the
+   * value of every old slot {@code i} to {@code targets[i]}, unless that is
+   * negative.
+   */
+  abstract void moveValues(int[] targets, int length);
+
+  abstract void moveValue(int from, int to);
+
+  abstract void clearValue(int slot);
+
+  public int size() {
+    return size + (hasFreeKey ? 1 : 0);
+  }
+
+  public boolean containsKey(long key) {
+    return indexOf(key) >= 0;
+  }
+
+  /**
+   * The slot holding the value of {@code key}, or -1 if it is missing.
+   */
+  final int indexOf(long key) {
+    if (key == FREE)
+      return hasFreeKey ? keys.length : -1;
+    int slot = find(key);
+    return keys[slot] == key ? slot : -1;
+  }
+
+  /**
+   * The slot holding the value of {@code key}, added with a zero value if it
+   * is missing. The table may grow and replace the value array, so read
+   * the array only after this returns; the slot is good until the next call.
+   */
+  final int slotOf(long key) {
+    if (key == FREE) {
+      if (!hasFreeKey) {
+        hasFreeKey = true;
+        clearValue(keys.length);
+      }
+      return keys.length;
+    }
+
+    int slot = find(key);
+    if (keys[slot] == key)
+      return slot;
+    if ((size + 1) * 2 > keys.length) {
+      rehash(keys.length * 2);
+      slot = find(key);
+    }
+    keys[slot] = key;
+    size++;
+    clearValue(slot);
+    return slot;
+  }
+
+  public void remove(long key) {
+    if (key == FREE) {
+      hasFreeKey = false;
+      return;
+    }
+
+    int slot = find(key);
+    if (keys[slot] != key)
+      return;
+
+    // Backward-shift deletion keeps every probe sequence free of holes.
+    int hole = slot;
+    for (int next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+      int home = slot(keys[next]);
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        moveValue(next, hole);
+        hole = next;
+      }
+    }
+    keys[hole] = FREE;
+    size--;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    size = 0;
+    hasFreeKey = false;
+  }
+
+  /**
+   * Calls {@code visitor} with the key and slot of every entry.
+   */
+  final void forEachSlot(SlotVisitor visitor) {
+    if (hasFreeKey)
+      visitor.accept(FREE, keys.length);
+    for (int slot = 0; slot < keys.length; slot++)
+      if (keys[slot] != FREE)
+        visitor.accept(keys[slot], slot);
+  }
+
+  interface SlotVisitor {
+    void accept(long key, int slot);
+  }
+
+  private int find(long key) {
+    int slot = slot(key);
+    while (keys[slot] != key && keys[slot] != FREE)
+      slot = (slot + 1) & mask;
+    return slot;
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    int[] targets = new int[oldKeys.length + 1];
+    keys = new long[capacity];
+    mask = capacity - 1;
+
+    for (int slot = 0; slot < oldKeys.length; slot++) {
+      if (oldKeys[slot] == FREE) {
+        targets[slot] = -1;
+        continue;
+      }
+      int target = find(oldKeys[slot]);
+      keys[target] = oldKeys[slot];
+      targets[slot] = target;
+    }
+    targets[oldKeys.length] = capacity;
+    moveValues(targets, capacity + 1);
+  }
+
+  private int slot(long key) {
+    long z = key * 0x9E3779B97F4A7C15L;
+    return (int) (z ^ (z >>> 32)) & mask;
+  }
+}
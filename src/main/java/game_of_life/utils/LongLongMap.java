@@ -0,0 +1,43 @@
+package game_of_life.utils;
+
+/**
+ * Open-addressing hash map from {@code long} keys to {@code long} values,
+ * with linear probing and no boxing. Any key is allowed.
+ */
+public class LongLongMap extends LongKeyedMap {
+  private long[] values;
+
+  public LongLongMap() {
+    super(0);
+    values = new long[valueSlots()];
+  }
+
+  public long get(long key, long missing) {
+    int slot = indexOf(key);
+    return slot >= 0 ? values[slot] : missing;
+  }
+
+  public void put(long key, long value) {
+    int slot = slotOf(key);
+    values[slot] = value;
+  }
+
+  @Override
+  void moveValues(int[] targets, int length) {
+    long[] old = values;
+    values = new long[length];
+    for (int slot = 0; slot < old.length; slot++)
+      if (targets[slot] >= 0)
+        values[targets[slot]] = old[slot];
+  }
+
+  @Override
+  void moveValue(int from, int to) {
+    values[to] = values[from];
+  }
+
+  @Override
+  void clearValue(int slot) {
+    values[slot] = 0;
+  }
+}
@@ -14,6 +14,19 @@ public class Validator {
     }
   }
 
+  public static boolean isLong(String str, String errorMessage) {
+    if (str == null || str.isEmpty()) {
+      return false;
+    }
+    try {
+      Long.parseLong(str);
+      return true;
+    } catch (NumberFormatException e) {
+      System.out.println(errorMessage);
+      return false;
+    }
+  }
+
   public static boolean isDouble(String str, String errorMessage) {
     if (str == null || str.isEmpty()) {
       return false;
@@ -26,4 +39,79 @@ public class Validator {
       return false;
     }
   }
+
+  public static <E extends Enum<E>> boolean isEnum(Class<E> type, String str, String errorMessage) {
+    if (str == null || str.isEmpty()) {
+      return false;
+    }
+    try {
+      Enum.valueOf(type, str.toUpperCase());
+      return true;
+    } catch (IllegalArgumentException e) {
+      System.out.println(errorMessage);
+      return false;
+    }
+  }
+
+  /**
+   * A single number or an inclusive range written {@code <from>:<to>}.
+   */
+  public static boolean isLongRange(String str, String errorMessage) {
+    if (str == null || str.isEmpty()) {
+      return false;
+    }
+    String[] range = str.split(":", -1);
+    if (range.length > 2) {
+      System.out.println(errorMessage);
+      return false;
+    }
+    for (String bound : range) {
+      if (bound.isEmpty()) {
+        System.out.println(errorMessage);
+        return false;
+      }
+      if (!isLong(bound, errorMessage)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A comma separated list of integers.
+   */
+  public static boolean isIntegerList(String str, String errorMessage) {
+    if (str == null || str.isEmpty()) {
+      return false;
+    }
+    for (String item : str.split(",", -1)) {
+      if (item.isEmpty()) {
+        System.out.println(errorMessage);
+        return false;
+      }
+      if (!isInteger(item, errorMessage)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A comma separated list of numbers.
+   */
+  public static boolean isDoubleList(String str, String errorMessage) {
+    if (str == null || str.isEmpty()) {
+      return false;
+    }
+    for (String item : str.split(",", -1)) {
+      if (item.isEmpty()) {
+        System.out.println(errorMessage);
+        return false;
+      }
+      if (!isDouble(item, errorMessage)) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
@@ -0,0 +1,48 @@
+package game_of_life;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import game_of_life.types.State;
+
+public class GameTest {
+    private static Settings settings(long seed, int threads) {
+        Settings settings = new Settings();
+        settings.rows = 40;
+        settings.cols = 60;
+        settings.seed = seed;
+        settings.threads = threads;
+        settings.generations = 500;
+        return settings;
+    }
+
+    @Test
+    public void sameSeedPlaysTheSameGame() {
+        SimulationResult first = Game.simulate(settings(5, 1));
+        SimulationResult second = Game.simulate(settings(5, 4));
+
+        assertEquals(first.getState(), second.getState());
+        assertEquals(first.getVictoriousTribe(), second.getVictoriousTribe());
+        assertEquals(first.getGenerations(), second.getGenerations());
+        assertEquals(first.getCyclePeriod(), second.getCyclePeriod());
+    }
+
+    @Test
+    public void emptyBoardsEndWithEveryoneLost() {
+        Settings settings = settings(1, 1);
+        settings.percentageFill = 0;
+        SimulationResult empty = Game.simulate(settings);
+        assertEquals(State.EVERYONE_LOST, empty.getState());
+        assertEquals(0, empty.getCyclePeriod());
+
+        // Sparse boards that die out within a few generations.
+        for (long seed : new long[] {9, 11, 15, 16}) {
+            settings = settings(seed, 1);
+            settings.rows = 20;
+            settings.cols = 20;
+            settings.percentageFill = 0.05;
+            assertEquals("seed " + seed, State.EVERYONE_LOST, Game.simulate(settings).getState());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package game_of_life;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+import game_of_life.types.State;
+
+public class SessionSchedulerTest {
+    private final SessionScheduler scheduler = new SessionScheduler(1);
+
+    @After
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private Simulation simulation(int generationsPerSec, AtomicLong steps) {
+        return new Simulation(scheduler, generationsPerSec, () -> {
+            steps.incrementAndGet();
+            // Roughly the cost of a small board.
+            long until = System.nanoTime() + 50_000;
+            while (System.nanoTime() < until)
+                ;
+            return State.RUNNING;
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void sessionsShareOneWorker() {
+        int sessions = 12;
+        AtomicLong[] steps = new AtomicLong[sessions];
+        Simulation[] simulations = new Simulation[sessions];
+        for (int i = 0; i < sessions; i++) {
+            steps[i] = new AtomicLong();
+            simulations[i] = simulation(0, steps[i]);
+            simulations[i].start();
+        }
+        AtomicLong paced = new AtomicLong();
+        Simulation slow = simulation(50, paced);
+        slow.start();
+
+        sleep(1000);
+        for (Simulation simulation : simulations)
+            simulation.stop();
+        slow.stop();
+
+        for (int i = 0; i < sessions; i++)
+            assertTrue("session " + i + " stepped " + steps[i].get(), steps[i].get() > 100);
+        // Sessions stepping flat out do not hold up one that waits for its next generation.
+        assertTrue("paced session stepped " + paced.get(), paced.get() >= 30 && paced.get() <= 52);
+
+        long stopped = steps[0].get();
+        sleep(50);
+        assertEquals(stopped, steps[0].get());
+    }
+
+    @Test
+    public void pausedSessionsTakeNoSteps() {
+        AtomicLong steps = new AtomicLong();
+        Simulation simulation = simulation(0, steps);
+        simulation.start();
+        sleep(50);
+
+        simulation.setPaused(true);
+        sleep(20);
+        long paused = steps.get();
+        sleep(50);
+        assertEquals(paused, steps.get());
+
+        simulation.setPaused(false);
+        sleep(50);
+        assertTrue(steps.get() > paused);
+        simulation.stop();
+    }
+
+    @Test
+    public void finishedSessionsPublishTheirLastGeneration() {
+        AtomicLong steps = new AtomicLong();
+        Simulation simulation = new Simulation(scheduler, 0,
+                () -> steps.incrementAndGet() < 10 ? State.RUNNING : State.EVERYONE_LOST);
+        simulation.start();
+
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        // Finished is set when the last generation is published, before it is waited for.
+        while (simulation.getState() == State.RUNNING && System.nanoTime() < deadline)
+            simulation.await(deadline);
+        assertTrue(simulation.isFinished());
+        assertEquals(State.EVERYONE_LOST, simulation.getState());
+        assertEquals(State.EVERYONE_LOST, simulation.getLatestState());
+        assertEquals(10, steps.get());
+        simulation.stop();
+    }
+
+    @Test
+    public void stopWaitsForTheStepInProgress() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        AtomicBoolean stepping = new AtomicBoolean();
+        Simulation simulation = new Simulation(scheduler, 0, () -> {
+            stepping.set(true);
+            entered.countDown();
+            sleep(200);
+            stepping.set(false);
+            return State.RUNNING;
+        });
+        simulation.start();
+
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        simulation.stop();
+        assertFalse(stepping.get());
+    }
+
+    @Test
+    public void aFailingStepEndsTheGame() {
+        Simulation simulation = new Simulation(scheduler, 0, () -> {
+            throw new IllegalStateException("broken engine");
+        });
+        simulation.start();
+
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (!simulation.isFinished() && System.nanoTime() < deadline)
+            simulation.await(System.nanoTime() + 10_000_000L);
+        assertTrue(simulation.isFinished());
+        assertEquals(State.FAILED, simulation.getState());
+        simulation.stop();
+    }
+}
@@ -0,0 +1,35 @@
+package game_of_life.cycle;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CycleDetectorTest {
+    /**
+     * Feeds states 0, 1, ..., start - 1 followed by a loop of {@code period} states until a cycle is reported.
+     */
+    private static long periodFound(CycleDetector detector, int start, int period) {
+        for (long generation = 0; generation < 100_000; generation++) {
+            long state = generation < start ? generation : start + (generation - start) % period;
+            long found = detector.observe(state * 0x9E3779B97F4A7C15L, generation);
+            if (found > 0)
+                return found;
+        }
+        return 0;
+    }
+
+    @Test
+    public void everyDetectorReportsTheExactPeriod() {
+        int[][] cases = { { 0, 1 }, { 5, 1 }, { 3, 2 }, { 17, 7 }, { 100, 64 }, { 1000, 333 } };
+        for (int[] c : cases) {
+            assertEquals(c[1], periodFound(new HistoryCycleDetector(), c[0], c[1]));
+            assertEquals(c[1], periodFound(new WindowCycleDetector(512), c[0], c[1]));
+            assertEquals(c[1], periodFound(new BrentCycleDetector(), c[0], c[1]));
+        }
+    }
+
+    @Test
+    public void windowDetectorMissesCyclesLongerThanItsCapacity() {
+        assertEquals(0, periodFound(new WindowCycleDetector(8), 0, 9));
+    }
+}
@@ -0,0 +1,252 @@
+package game_of_life.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import game_of_life.Settings;
+import game_of_life.types.Tribe;
+
+public class EngineTest {
+    private static final int ROWS = 30;
+    private static final int COLS = 50;
+    private static final int GENERATIONS = 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void seed(Engine engine, long seed) {
+        Random random = new Random(seed);
+        Tribe[] tribes = Tribe.values();
+        for (int row = 0; row < engine.getRows(); row++)
+            for (int col = 0; col < engine.getCols(); col++)
+                engine.set(row, col, tribes[random.nextInt(tribes.length)]);
+    }
+
+    private static void assertSameCells(Engine expected, Engine actual, int generation) {
+        for (int row = 0; row < expected.getRows(); row++)
+            for (int col = 0; col < expected.getCols(); col++)
+                assertEquals("generation " + generation + " at (" + row + ", " + col + ")",
+                        expected.get(row, col), actual.get(row, col));
+
+        Census fromCells = new Census();
+        for (int row = 0; row < actual.getRows(); row++)
+            for (int col = 0; col < actual.getCols(); col++)
+                fromCells.change(row, col, Tribe.NONE.ordinal(), actual.get(row, col).ordinal());
+        assertEquals(fromCells.getHash(), actual.getCensus().getHash());
+        for (Tribe tribe : Tribe.getTribes())
+            assertEquals(fromCells.getPopulation(tribe), actual.getCensus().getPopulation(tribe));
+    }
+
+    @Test
+    public void primitiveEngineMatchesReference() {
+        Engine reference = new ReferenceEngine(ROWS, COLS);
+        Engine primitive = new PrimitiveEngine(ROWS, COLS);
+        seed(reference, 42);
+        seed(primitive, 42);
+
+        for (int generation = 1; generation <= GENERATIONS; generation++) {
+            reference.prepNextState(new Dice(7, generation), null);
+            primitive.prepNextState(new Dice(7, generation), null);
+            reference.swapBuffers();
+            primitive.swapBuffers();
+            assertSameCells(reference, primitive, generation);
+        }
+    }
+
+    @Test
+    public void parallelSteppingMatchesSequential() {
+        Engine sequential = new PrimitiveEngine(ROWS * 4, COLS);
+        Engine parallel = new PrimitiveEngine(ROWS * 4, COLS);
+        seed(sequential, 3);
+        seed(parallel, 3);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int generation = 1; generation <= GENERATIONS; generation++) {
+            sequential.prepNextState(new Dice(11, generation), null);
+            parallel.prepNextState(new Dice(11, generation), pool);
+            sequential.swapBuffers();
+            parallel.swapBuffers();
+            assertSameCells(sequential, parallel, generation);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void sparseEngineMatchesPrimitive() {
+        Engine primitive = new PrimitiveEngine(ROWS, COLS);
+        Engine sparse = new SparseEngine(ROWS, COLS);
+        seed(primitive, 19);
+        seed(sparse, 19);
+
+        for (int generation = 1; generation <= GENERATIONS; generation++) {
+            primitive.prepNextState(new Dice(5, generation), null);
+            sparse.prepNextState(new Dice(5, generation), null);
+            primitive.swapBuffers();
+            sparse.swapBuffers();
+            assertSameCells(primitive, sparse, generation);
+        }
+    }
+
+    @Test
+    public void sparseEngineRunsBoardsTooLargeForOneArray() {
+        int size = 100_000;
+        assertFalse(Grid.fitsInArray(size, size));
+        try {
+            Grid.cellCount(size, size);
+            fail("A board of 10^10 cells fits in one array");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // A block in the far corner is still there a generation later.
+        Engine sparse = new SparseEngine(size, size);
+        for (int row = size - 2; row < size; row++)
+            for (int col = size - 2; col < size; col++)
+                sparse.set(row, col, Tribe.VIKINGS);
+        sparse.prepNextState(Dice.ALWAYS_SURVIVE, null);
+        sparse.swapBuffers();
+        assertEquals(4, sparse.getCensus().getPopulation(Tribe.VIKINGS));
+        assertEquals(Tribe.VIKINGS, sparse.get(size - 1, size - 1));
+    }
+
+    @Test
+    public void hashLifeEngineMatchesPrimitiveWithDeterministicRules() {
+        Engine primitive = new PrimitiveEngine(ROWS, COLS);
+        Engine hashLife = new HashLifeEngine(ROWS, COLS, 0, 1 << 16);
+        seed(primitive, 23);
+        seed(hashLife, 23);
+
+        for (int generation = 1; generation <= GENERATIONS; generation++) {
+            primitive.prepNextState(Dice.ALWAYS_SURVIVE, null);
+            hashLife.prepNextState(new Dice(1, generation), null);
+            primitive.swapBuffers();
+            hashLife.swapBuffers();
+            assertSameCells(primitive, hashLife, generation);
+        }
+    }
+
+    @Test
+    public void hashLifeEngineJumpsSeveralGenerations() {
+        Engine primitive = new PrimitiveEngine(ROWS, COLS);
+        Engine hashLife = new HashLifeEngine(ROWS, COLS, 3, 1 << 16);
+        seed(primitive, 29);
+        seed(hashLife, 29);
+
+        for (int step = 1; step <= 4; step++) {
+            for (int i = 0; i < hashLife.getGenerationsPerStep(); i++) {
+                primitive.prepNextState(Dice.ALWAYS_SURVIVE, null);
+                primitive.swapBuffers();
+            }
+            hashLife.prepNextState(Dice.ALWAYS_SURVIVE, null);
+            hashLife.swapBuffers();
+            assertSameCells(primitive, hashLife, step * 8);
+        }
+    }
+
+    @Test
+    public void chunkedSteppingMatchesFullStepping() {
+        Engine full = new PrimitiveEngine(ROWS * 2, COLS * 2, 0);
+        Engine chunked = new PrimitiveEngine(ROWS * 2, COLS * 2, 4);
+        seed(full, 31);
+        seed(chunked, 31);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        for (int generation = 1; generation <= GENERATIONS * 5; generation++) {
+            full.prepNextState(new Dice(13, generation), null);
+            chunked.prepNextState(new Dice(13, generation), pool);
+            full.swapBuffers();
+            chunked.swapBuffers();
+            assertSameCells(full, chunked, generation);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void bitPlaneEngineMatchesReference() {
+        // 130 columns: two full words and a partial one.
+        Engine reference = new ReferenceEngine(ROWS, 130);
+        Engine bitPlane = new BitPlaneEngine(ROWS, 130);
+        seed(reference, 37);
+        seed(bitPlane, 37);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        for (int generation = 1; generation <= GENERATIONS; generation++) {
+            reference.prepNextState(new Dice(17, generation), null);
+            bitPlane.prepNextState(new Dice(17, generation), pool);
+            reference.swapBuffers();
+            bitPlane.swapBuffers();
+            assertSameCells(reference, bitPlane, generation);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void vectorEngineMatchesReference() {
+        Engine reference = new ReferenceEngine(ROWS, 130);
+        VectorEngine vector = new VectorEngine(ROWS, 130);
+        assertTrue(vector.isVectorized());
+        seed(reference, 41);
+        seed(vector, 41);
+
+        for (int generation = 1; generation <= GENERATIONS; generation++) {
+            reference.prepNextState(new Dice(19, generation), null);
+            vector.prepNextState(new Dice(19, generation), null);
+            reference.swapBuffers();
+            vector.swapBuffers();
+            assertSameCells(reference, vector, generation);
+        }
+    }
+
+    @Test
+    public void mappedEngineMatchesReferenceAndReopensInPlace() throws IOException {
+        Settings settings = new Settings();
+        settings.rows = ROWS;
+        settings.cols = COLS;
+        settings.boardFile = folder.getRoot().toPath().resolve("board.board").toString();
+
+        Engine reference = new ReferenceEngine(ROWS, COLS);
+        MappedEngine mapped = MappedEngine.create(settings);
+        seed(reference, 43);
+        seed(mapped, 43);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        for (int generation = 1; generation <= GENERATIONS; generation++) {
+            reference.prepNextState(new Dice(23, generation), null);
+            mapped.prepNextState(new Dice(23, generation), pool);
+            reference.swapBuffers();
+            mapped.swapBuffers();
+            assertSameCells(reference, mapped, generation);
+        }
+        pool.shutdown();
+        mapped.close();
+
+        MappedEngine reopened = MappedEngine.open(Paths.get(settings.boardFile));
+        assertEquals(GENERATIONS, reopened.getGeneration());
+        assertSameCells(reference, reopened, GENERATIONS);
+        assertEquals(reference.getCensus().getHash(), reopened.getCensus().getHash());
+        reopened.close();
+
+        // Creating a board over an existing board file leaves it alone.
+        try {
+            MappedEngine.create(settings).close();
+            fail("overwrote " + settings.boardFile);
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause() instanceof FileAlreadyExistsException);
+        }
+        reopened = MappedEngine.open(Paths.get(settings.boardFile));
+        assertSameCells(reference, reopened, GENERATIONS);
+        reopened.close();
+    }
+}
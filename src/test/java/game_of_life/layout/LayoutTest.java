@@ -0,0 +1,107 @@
+package game_of_life.layout;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import game_of_life.Settings;
+import game_of_life.engine.Engine;
+import game_of_life.engine.PrimitiveEngine;
+import game_of_life.types.LayoutType;
+import game_of_life.types.Tribe;
+
+public class LayoutTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Settings settings(LayoutType layout, int clusters) {
+        Settings settings = new Settings();
+        settings.rows = 150;
+        settings.cols = 110;
+        settings.seed = 17;
+        settings.numberOfClusters = clusters;
+        settings.layout = layout;
+        return settings;
+    }
+
+    private static byte[] apply(Settings settings, ForkJoinPool pool) {
+        Engine engine = new PrimitiveEngine(settings.rows, settings.cols);
+        Layout.apply(Layout.create(settings, pool), engine, pool);
+        byte[] cells = new byte[settings.rows * settings.cols];
+        engine.copyTo(cells);
+        return cells;
+    }
+
+    @Test
+    public void everyLayoutIsTheSameWhateverTheParallelism() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        for (LayoutType type : LayoutType.values()) {
+            // More clusters than tribes.
+            Settings settings = settings(type, 5);
+            byte[] serial = apply(settings, null);
+            assertEquals(type.name(), serial.length, apply(settings, pool).length);
+            assertEquals(type.name(), Arrays.toString(serial), Arrays.toString(apply(settings, pool)));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void voronoiCellsBelongToTheNearestSite() {
+        Settings settings = settings(LayoutType.VORONOI, 40);
+        VoronoiLayout layout = new VoronoiLayout(settings);
+        for (int row = 0; row < settings.rows; row++) {
+            for (int col = 0; col < settings.cols; col++) {
+                long best = Long.MAX_VALUE;
+                int nearest = -1;
+                for (int site = 0; site < layout.siteRows.length; site++) {
+                    long dr = row - layout.siteRows[site];
+                    long dc = col - layout.siteCols[site];
+                    if (dr * dr + dc * dc < best) {
+                        best = dr * dr + dc * dc;
+                        nearest = site;
+                    }
+                }
+                assertEquals("(" + row + ", " + col + ")", nearest, layout.nearestSite(row, col));
+            }
+        }
+    }
+
+    @Test
+    public void stripesTakeTurnsOverTheTribes() {
+        Settings settings = settings(LayoutType.HSTRIPES, 4);
+        settings.percentageFill = 1;
+        byte[] cells = apply(settings, null);
+        int cols = settings.cols;
+        assertEquals(Tribe.VIKINGS.ordinal(), cells[0]);
+        assertEquals(Tribe.WARRIORS.ordinal(), cells[40 * cols]);
+        assertEquals(Tribe.MAGES.ordinal(), cells[80 * cols + 7]);
+        assertEquals(Tribe.VIKINGS.ordinal(), cells[149 * cols + 109]);
+    }
+
+    @Test
+    public void patternIsCentred() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("pattern.txt");
+        Files.write(file, "! comment\nA.B\n.C\n".getBytes(StandardCharsets.UTF_8));
+        Settings settings = settings(LayoutType.PATTERN, 3);
+        settings.rows = 6;
+        settings.cols = 7;
+        settings.patternFile = file.toString();
+
+        byte[] cells = apply(settings, null);
+        byte[] expected = new byte[6 * 7];
+        Arrays.fill(expected, (byte) Tribe.NONE.ordinal());
+        expected[2 * 7 + 2] = (byte) Tribe.VIKINGS.ordinal();
+        expected[2 * 7 + 4] = (byte) Tribe.WARRIORS.ordinal();
+        expected[3 * 7 + 3] = (byte) Tribe.MAGES.ordinal();
+        assertEquals(Arrays.toString(expected), Arrays.toString(cells));
+    }
+}
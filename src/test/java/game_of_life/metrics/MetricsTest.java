@@ -0,0 +1,93 @@
+package game_of_life.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import game_of_life.engine.Census;
+import game_of_life.types.Phase;
+import game_of_life.types.Tribe;
+
+public class MetricsTest {
+    @Test
+    public void percentilesAreWithinTheBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(5);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // From nanoseconds to tens of milliseconds.
+            values[i] = (long) Math.pow(10, 1 + 6.5 * random.nextDouble());
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        for (double percentile : new double[] { 1, 50, 90, 99, 99.9, 100 }) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.valueAt(percentile);
+            assertTrue(percentile + ": " + estimate + " vs " + exact,
+                    estimate >= exact && estimate <= exact + exact / 64 + 1);
+        }
+    }
+
+    @Test
+    public void shortDurationsAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100; nanos++)
+            histogram.record(nanos);
+
+        assertEquals(50, histogram.valueAt(50));
+        assertEquals(99, histogram.valueAt(99));
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.valueAt(50));
+    }
+
+    @Test
+    public void exportsTheSessionAndEveryPhaseOverJmx() throws JMException {
+        Metrics metrics = new Metrics();
+        Census census = new Census();
+        census.change(0, 0, Tribe.NONE.ordinal(), Tribe.WARRIORS.ordinal());
+        census.change(0, 1, Tribe.NONE.ordinal(), Tribe.WARRIORS.ordinal());
+        metrics.stepped(7, census, 3, 128);
+        metrics.record(Phase.COMPUTE, 2_000);
+        metrics.rendered(400);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName session = new ObjectName("game_of_life:type=Session,session=\"test\"");
+        ObjectName compute = new ObjectName("game_of_life:type=Latency,session=\"test\",phase=compute");
+        metrics.register("test");
+        try {
+            assertEquals(7L, server.getAttribute(session, "Generation"));
+            assertEquals(3, server.getAttribute(session, "MemoSize"));
+            assertEquals(128.0, server.getAttribute(session, "AllocatedBytesPerGeneration"));
+            assertEquals(400L, server.getAttribute(session, "BytesRendered"));
+            TabularData population = (TabularData) server.getAttribute(session, "Population");
+            CompositeData warriors = population.get(new Object[] { "WARRIORS" });
+            assertEquals(2L, warriors.get("value"));
+
+            assertEquals(1L, server.getAttribute(compute, "Count"));
+            assertEquals(2.0, (double) server.getAttribute(compute, "P50Micros"), 2.0 / 64);
+            assertEquals(Phase.values().length,
+                    server.queryNames(new ObjectName("game_of_life:type=Latency,session=\"test\",*"), null).size());
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(session));
+        assertFalse(server.isRegistered(compute));
+    }
+}
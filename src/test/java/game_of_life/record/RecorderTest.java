@@ -0,0 +1,116 @@
+package game_of_life.record;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Element;
+
+import game_of_life.engine.Dice;
+import game_of_life.engine.Engine;
+import game_of_life.engine.PrimitiveEngine;
+import game_of_life.types.Tribe;
+
+public class RecorderTest {
+    private static final int ROWS = 120;
+    private static final int COLS = 170;
+    private static final int GENERATIONS = 12;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Engine seeded() {
+        Engine engine = new PrimitiveEngine(ROWS, COLS);
+        Random random = new Random(11);
+        for (int row = 0; row < ROWS; row++)
+            for (int col = 0; col < COLS; col++)
+                engine.set(row, col, Tribe.values()[random.nextInt(4)]);
+        return engine;
+    }
+
+    private static byte[] cells(Engine engine) {
+        byte[] cells = new byte[ROWS * COLS];
+        engine.copyTo(cells);
+        return cells;
+    }
+
+    @Test
+    public void gifFramesDecodeToTheRecordedGenerations() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("run.gif");
+        Recorder recorder = Recorder.open(path, ROWS, COLS, 100, GENERATIONS + 1);
+        Engine engine = seeded();
+        List<byte[]> expected = new ArrayList<>();
+        for (int generation = 0; generation <= GENERATIONS; generation++) {
+            if (generation > 0) {
+                engine.prepNextState(new Dice(3, generation), null);
+                engine.swapBuffers();
+            }
+            recorder.offer(engine);
+            expected.add(cells(engine));
+        }
+        recorder.close();
+        assertEquals(GENERATIONS + 1, recorder.getRecorded());
+        assertEquals(0, recorder.getDropped());
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+            reader.setInput(in);
+            assertEquals(GENERATIONS + 1, reader.getNumImages(true));
+
+            // Frames after the first hold the rectangle that changed; outside it the cells must not have changed.
+            byte[] shown = new byte[ROWS * COLS];
+            for (int frame = 0; frame <= GENERATIONS; frame++) {
+                BufferedImage image = reader.read(frame);
+                Element descriptor = (Element) reader.getImageMetadata(frame).getAsTree("javax_imageio_gif_image_1.0")
+                        .getFirstChild();
+                int left = Integer.parseInt(descriptor.getAttribute("imageLeftPosition"));
+                int top = Integer.parseInt(descriptor.getAttribute("imageTopPosition"));
+                for (int row = 0; row < image.getHeight(); row++)
+                    for (int col = 0; col < image.getWidth(); col++)
+                        shown[(top + row) * COLS + left + col] = ordinal(image.getRGB(col, row));
+
+                for (int idx = 0; idx < shown.length; idx++)
+                    assertEquals("frame " + frame + " cell " + idx, expected.get(frame)[idx], shown[idx]);
+            }
+        }
+    }
+
+    private static byte ordinal(int argb) {
+        for (Tribe tribe : Tribe.values())
+            if (tribe.getRgb() == (argb & 0xFFFFFF))
+                return (byte) tribe.ordinal();
+        throw new AssertionError("Unexpected colour " + Integer.toHexString(argb));
+    }
+
+    @Test
+    public void dropsGenerationsInsteadOfWaitingForTheEncoder() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("run.rgb");
+        Recorder recorder = Recorder.open(path, ROWS, COLS, 100, 1);
+        Engine engine = seeded();
+        int offered = 200;
+        for (int generation = 0; generation < offered; generation++)
+            recorder.offer(engine);
+        recorder.close();
+
+        assertEquals(offered, recorder.getRecorded() + recorder.getDropped());
+        assertEquals(recorder.getRecorded() * ROWS * COLS * 3, Files.size(path));
+        byte[] raw = Files.readAllBytes(path);
+        int rgb = engine.get(0, 0).getRgb();
+        assertEquals((byte) (rgb >>> 16), raw[0]);
+        assertEquals((byte) (rgb >>> 8), raw[1]);
+        assertEquals((byte) rgb, raw[2]);
+    }
+}
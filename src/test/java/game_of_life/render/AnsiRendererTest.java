@@ -0,0 +1,40 @@
+package game_of_life.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import game_of_life.engine.Engine;
+import game_of_life.engine.PrimitiveEngine;
+import game_of_life.types.Tribe;
+
+public class AnsiRendererTest {
+    @Test
+    public void sendsOnlyChangedCells() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AnsiRenderer renderer = new AnsiRenderer(new PrintStream(bytes));
+        Engine engine = new PrimitiveEngine(20, 30);
+        engine.set(3, 4, Tribe.VIKINGS);
+
+        int full = renderer.render(engine);
+        assertTrue(full > 20 * 30);
+        assertEquals(full, bytes.size());
+
+        bytes.reset();
+        assertEquals(0, renderer.render(engine));
+        assertEquals(0, bytes.size());
+
+        engine.set(3, 5, Tribe.VIKINGS);
+        engine.set(3, 6, Tribe.VIKINGS);
+        renderer.render(engine);
+        // One move to the first changed cell, the colour, two adjacent sigils, then the cursor is parked.
+        assertEquals("\033[4;9H" + Tribe.VIKINGS.getColor() + "AA\033[22;1H" + Tribe.NONE.getColor(),
+            new String(bytes.toByteArray(), StandardCharsets.US_ASCII));
+        assertEquals(3, renderer.getFrames());
+    }
+}
@@ -0,0 +1,35 @@
+package game_of_life.render;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import game_of_life.engine.Engine;
+import game_of_life.engine.PrimitiveEngine;
+import game_of_life.types.Tribe;
+
+public class ViewportTest {
+    @Test
+    public void zoomShowsDominantTribeAndPanStaysOnBoard() {
+        Engine engine = new PrimitiveEngine(100, 200);
+        engine.set(0, 0, Tribe.MAGES);
+        engine.set(4, 4, Tribe.WARRIORS);
+        engine.set(8, 8, Tribe.WARRIORS);
+
+        Viewport viewport = new Viewport(10, 20).show(engine);
+        assertEquals(10, viewport.getRows());
+        assertEquals(Tribe.MAGES, viewport.get(0, 0));
+
+        viewport.fit();
+        assertEquals(16, viewport.getZoom());
+        assertEquals(7, viewport.getRows());
+        assertEquals(13, viewport.getCols());
+        assertEquals(Tribe.WARRIORS, viewport.get(0, 0));
+        assertEquals(Tribe.NONE, viewport.get(1, 1));
+
+        viewport.zoomIn();
+        viewport.pan(100, 100);
+        assertEquals(100 - 10 * 8, viewport.getTop());
+        assertEquals(200 - 20 * 8, viewport.getLeft());
+    }
+}
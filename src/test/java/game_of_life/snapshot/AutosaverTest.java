@@ -0,0 +1,79 @@
+package game_of_life.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import game_of_life.Settings;
+import game_of_life.engine.Engine;
+import game_of_life.engine.PrimitiveEngine;
+import game_of_life.types.Tribe;
+
+public class AutosaverTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void keepsTheNewestCheckpoints() throws IOException {
+        Settings settings = new Settings();
+        settings.rows = 20;
+        settings.cols = 30;
+        Engine engine = new PrimitiveEngine(settings.rows, settings.cols);
+        Path directory = folder.getRoot().toPath();
+        Autosaver autosaver = new Autosaver(directory, "session", 10, 0, 2);
+
+        assertFalse(autosaver.isDue(0));
+        for (long generation = 1; generation <= 50; generation++) {
+            engine.set(0, (int) generation % 30, Tribe.MAGES);
+            if (autosaver.isDue(generation)) {
+                // Wait for the previous save so that none is skipped.
+                while (!autosaver.offer(settings, generation, engine))
+                    Thread.yield();
+            }
+        }
+        autosaver.close();
+
+        List<Path> checkpoints = Autosaver.checkpoints(directory, "session");
+        assertEquals(2, checkpoints.size());
+        assertEquals("session.autosave-50.gol", checkpoints.get(1).getFileName().toString());
+        Snapshot newest = SnapshotFormat.read(checkpoints.get(1));
+        assertEquals(50, newest.getGeneration());
+        assertEquals(Tribe.MAGES, newest.get(0, 20));
+        // No temporary files are left behind.
+        assertEquals(2, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void forgetsTheCheckpointsAfterARewind() throws IOException {
+        Settings settings = new Settings();
+        settings.rows = 20;
+        settings.cols = 30;
+        Engine engine = new PrimitiveEngine(settings.rows, settings.cols);
+        Path directory = folder.getRoot().toPath();
+        Autosaver autosaver = new Autosaver(directory, "session", 10, 0, 3);
+
+        for (long generation : new long[] {10, 20, 30}) {
+            while (!autosaver.offer(settings, generation, engine))
+                Thread.yield();
+        }
+        autosaver.rewound(15);
+        engine.set(0, 0, Tribe.VIKINGS);
+        while (!autosaver.offer(settings, 16, engine))
+            Thread.yield();
+        autosaver.close();
+
+        List<Path> checkpoints = Autosaver.checkpoints(directory, "session");
+        assertEquals(2, checkpoints.size());
+        assertEquals("session.autosave-10.gol", checkpoints.get(0).getFileName().toString());
+        Snapshot newest = SnapshotFormat.read(checkpoints.get(1));
+        assertEquals(16, newest.getGeneration());
+        assertEquals(Tribe.VIKINGS, newest.get(0, 0));
+    }
+}
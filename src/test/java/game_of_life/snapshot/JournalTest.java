@@ -0,0 +1,146 @@
+package game_of_life.snapshot;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import game_of_life.Settings;
+import game_of_life.engine.Dice;
+import game_of_life.engine.Engine;
+import game_of_life.engine.PrimitiveEngine;
+import game_of_life.types.Tribe;
+
+public class JournalTest {
+    private static final int GENERATIONS = 30;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] cells(Engine engine) {
+        byte[] cells = new byte[engine.getRows() * engine.getCols()];
+        engine.copyTo(cells);
+        return cells;
+    }
+
+    private static void assertGeneration(Journal journal, long generation, byte[] expected) throws IOException {
+        Snapshot snapshot = journal.seek(generation);
+        assertEquals(generation, snapshot.getGeneration());
+        assertArrayEquals("generation " + generation, expected, cells(snapshot));
+    }
+
+    private static byte[] cells(Snapshot snapshot) {
+        byte[] cells = new byte[snapshot.getRows() * snapshot.getCols()];
+        snapshot.copyTo(cells);
+        return cells;
+    }
+
+    @Test
+    public void seeksAnyGenerationAndDropsTheFutureOnRewind() throws IOException {
+        Settings settings = new Settings();
+        settings.rows = 25;
+        settings.cols = 40;
+        Engine engine = new PrimitiveEngine(settings.rows, settings.cols);
+        Random random = new Random(5);
+        for (int row = 0; row < settings.rows; row++)
+            for (int col = 0; col < settings.cols; col++)
+                engine.set(row, col, Tribe.values()[random.nextInt(4)]);
+
+        Path path = folder.getRoot().toPath().resolve("session.journal");
+        Journal journal = Journal.create(path, settings, 8);
+        List<byte[]> expected = new ArrayList<>();
+        for (int generation = 0; generation <= GENERATIONS; generation++) {
+            if (generation > 0) {
+                engine.prepNextState(new Dice(9, generation), null);
+                engine.swapBuffers();
+            }
+            journal.record(generation, engine);
+            expected.add(cells(engine));
+        }
+
+        for (int generation = GENERATIONS; generation >= 0; generation--)
+            assertGeneration(journal, generation, expected.get(generation));
+        assertEquals(11, journal.previousGeneration(12));
+        assertEquals(-1, journal.nextGeneration(GENERATIONS));
+
+        // Rewind to generation 10 and play on differently.
+        Snapshot rewound = journal.seek(10);
+        Engine replay = new PrimitiveEngine(settings.rows, settings.cols);
+        rewound.forEachLiving(replay::set);
+        journal.record(10, replay);
+        replay.prepNextState(new Dice(10, 11), null);
+        replay.swapBuffers();
+        journal.record(11, replay);
+        assertEquals(-1, journal.nextGeneration(11));
+        assertGeneration(journal, 11, cells(replay));
+        journal.close();
+
+        // A record cut short at the end is dropped when reopening.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'D', 0, 0, 0}));
+        }
+        long size = Files.size(path);
+        Journal reopened = Journal.open(path);
+        assertEquals(size - 4, Files.size(path));
+        assertEquals(settings.cols, reopened.getSettings().cols);
+        assertGeneration(reopened, 9, expected.get(9));
+        assertGeneration(reopened, 11, cells(replay));
+        assertNull(reopened.seek(-1));
+        reopened.close();
+    }
+
+    @Test
+    public void keepsTheRecentHistoryWithinItsLimits() throws IOException {
+        Settings settings = new Settings();
+        settings.rows = 25;
+        settings.cols = 40;
+        Engine engine = new PrimitiveEngine(settings.rows, settings.cols);
+        Random random = new Random(6);
+        for (int row = 0; row < settings.rows; row++)
+            for (int col = 0; col < settings.cols; col++)
+                engine.set(row, col, Tribe.values()[random.nextInt(4)]);
+
+        Path path = folder.getRoot().toPath().resolve("session.journal");
+        long maxBytes = 16 * 1024;
+        Journal journal = Journal.create(path, settings, 8, maxBytes, 40);
+        int generations = 400;
+        List<byte[]> expected = new ArrayList<>();
+        for (int generation = 0; generation <= generations; generation++) {
+            if (generation > 0) {
+                engine.prepNextState(new Dice(9, generation), null);
+                engine.swapBuffers();
+            }
+            journal.record(generation, engine);
+            expected.add(cells(engine));
+            journal.flush();
+            assertTrue("journal of " + Files.size(path) + " bytes", Files.size(path) < 2 * maxBytes);
+        }
+
+        // The older generations are gone, the newer ones are all there.
+        assertNull(journal.seek(0));
+        long oldest = journal.nextGeneration(0);
+        assertTrue("oldest " + oldest, oldest > generations - 40 && oldest < generations - 8);
+        for (long generation = oldest; generation <= generations; generation++)
+            assertGeneration(journal, generation, expected.get((int) generation));
+        journal.close();
+
+        Journal reopened = Journal.open(path);
+        assertGeneration(reopened, generations, expected.get(generations));
+        assertEquals(-1, reopened.nextGeneration(generations));
+        reopened.close();
+    }
+}
@@ -0,0 +1,75 @@
+package game_of_life.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import game_of_life.Settings;
+import game_of_life.engine.Engine;
+import game_of_life.engine.PrimitiveEngine;
+import game_of_life.types.EngineType;
+import game_of_life.types.LayoutType;
+import game_of_life.types.Tribe;
+
+public class SnapshotFormatTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Snapshot snapshot(boolean deflate) {
+        Settings settings = new Settings();
+        settings.rows = 70;
+        settings.cols = 130;
+        settings.seed = 42;
+        settings.engine = EngineType.SPARSE;
+        settings.deflate = deflate;
+        settings.autosaveGenerations = 500;
+        settings.autosaveSeconds = 0;
+        settings.autosaveKeep = 5;
+        settings.keyframeInterval = 32;
+        settings.layout = LayoutType.HSTRIPES;
+
+        Engine engine = new PrimitiveEngine(settings.rows, settings.cols);
+        Random random = new Random(3);
+        // A dense block and a few scattered cells in empty space.
+        for (int row = 10; row < 30; row++)
+            for (int col = 20; col < 60; col++)
+                engine.set(row, col, Tribe.values()[random.nextInt(4)]);
+        engine.set(50, 100, Tribe.MAGES);
+        engine.set(69, 129, Tribe.WARRIORS);
+        return new Snapshot(settings, 1234, engine);
+    }
+
+    @Test
+    public void roundTripsCellsAndSettings() throws IOException {
+        for (boolean deflate : new boolean[] {false, true}) {
+            Snapshot written = snapshot(deflate);
+            Path path = folder.getRoot().toPath().resolve("board-" + deflate + ".gol");
+            SnapshotFormat.write(path, written);
+            Snapshot read = SnapshotFormat.read(path);
+
+            assertEquals(1234, read.getGeneration());
+            assertEquals(42, read.getSettings().seed);
+            assertEquals(EngineType.SPARSE, read.getSettings().engine);
+            assertEquals(deflate, read.getSettings().deflate);
+            assertEquals(500, read.getSettings().autosaveGenerations);
+            assertEquals(0, read.getSettings().autosaveSeconds);
+            assertEquals(5, read.getSettings().autosaveKeep);
+            assertEquals(32, read.getSettings().keyframeInterval);
+            assertEquals(LayoutType.HSTRIPES, read.getSettings().layout);
+            for (int row = 0; row < 70; row++)
+                for (int col = 0; col < 130; col++)
+                    assertEquals(written.get(row, col), read.get(row, col));
+
+            // Well under the 2 bits per cell of the whole board.
+            assertTrue(Files.size(path) < 70 * 130 / 4);
+        }
+    }
+}
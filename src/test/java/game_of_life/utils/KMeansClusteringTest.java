@@ -0,0 +1,42 @@
+package game_of_life.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class KMeansClusteringTest {
+    private static final int PER_BLOB = 20_000;
+    private static final int[][] CENTERS = {{50, 50}, {50, 900}, {700, 400}};
+
+    @Test
+    public void findsSeparatedBlobsWhateverTheParallelism() {
+        Random random = new Random(8);
+        int size = PER_BLOB * CENTERS.length;
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        for (int i = 0; i < size; i++) {
+            int[] center = CENTERS[i / PER_BLOB];
+            xs[i] = center[0] + random.nextInt(61) - 30;
+            ys[i] = center[1] + random.nextInt(61) - 30;
+        }
+
+        int[] serial = KMeansClustering.cluster(xs, ys, size, 3, new Random(1), null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int[] parallel = KMeansClustering.cluster(xs, ys, size, 3, new Random(1), pool);
+        pool.shutdown();
+        assertArrayEquals(serial, parallel);
+
+        for (int blob = 0; blob < CENTERS.length; blob++) {
+            int label = serial[blob * PER_BLOB];
+            for (int i = blob * PER_BLOB; i < (blob + 1) * PER_BLOB; i++)
+                assertEquals(label, serial[i]);
+            for (int other = 0; other < blob; other++)
+                assertNotEquals(serial[other * PER_BLOB], label);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package game_of_life.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongKeyedMapTest {
+    @Test
+    public void bothValueWidthsBehaveLikeAHashMap() {
+        Random random = new Random(8);
+        LongLongMap longs = new LongLongMap();
+        LongIntMap ints = new LongIntMap();
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            // Few distinct keys, 0 and negative ones included, so keys come and go.
+            long key = random.nextInt(600) - 100;
+            int value = random.nextInt(1000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    longs.put(key, value);
+                    ints.put(key, value);
+                    expected.put(key, (long) value);
+                    break;
+                case 1:
+                    longs.remove(key);
+                    ints.remove(key);
+                    expected.remove(key);
+                    break;
+                default:
+                    ints.addTo(key, value);
+                    longs.put(key, longs.get(key, 0) + value);
+                    expected.merge(key, (long) value, Long::sum);
+                    break;
+            }
+        }
+
+        assertEquals(expected.size(), longs.size());
+        assertEquals(expected.size(), ints.size());
+        for (long key = -100; key < 500; key++) {
+            assertEquals(expected.getOrDefault(key, -1L).longValue(), longs.get(key, -1));
+            assertEquals(expected.getOrDefault(key, -1L).intValue(), ints.get(key, -1));
+        }
+        Map<Long, Long> visited = new HashMap<>();
+        ints.forEach((key, value) -> visited.put(key, (long) value));
+        assertEquals(expected, visited);
+
+        ints.clear();
+        assertEquals(0, ints.size());
+        assertEquals(-1, ints.get(0, -1));
+    }
+}
@@ -0,0 +1,65 @@
+package game_of_life.engine;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Steps a whole vector of cells per instruction with the JDK Vector API:
+ * per-tribe neighbour counts are accumulated lane-wise and the rules are
+ * applied as lane masks. The tail of a run that does not fill a vector is
+ * stepped by the scalar kernel.
+ *
+ * Compiled from its own source root with {@code --add-modules jdk.incubator.vector}
+ * and only loaded reflectively by {@link RowKernel#create()}.
+ */
+final class VectorRowKernel implements RowKernel {
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+  private static final byte NONE = Rules.NONE;
+
+  @Override
+  public void step(byte[] cells, int stride, int from, int to, byte[] next) {
+    int[] offsets = {-stride - 1, -stride, -stride + 1, -1, 1, stride - 1, stride, stride + 1};
+    ByteVector zero = ByteVector.zero(SPECIES);
+    ByteVector one = ByteVector.broadcast(SPECIES, (byte) 1);
+
+    int idx = from;
+    for (; idx + SPECIES.length() <= to; idx += SPECIES.length()) {
+      ByteVector vikings = zero;
+      ByteVector warriors = zero;
+      ByteVector mages = zero;
+      for (int offset : offsets) {
+        ByteVector neighbor = ByteVector.fromArray(SPECIES, cells, idx + offset);
+        vikings = vikings.add(one, neighbor.eq((byte) 0));
+        warriors = warriors.add(one, neighbor.eq((byte) 1));
+        mages = mages.add(one, neighbor.eq((byte) 2));
+      }
+      ByteVector living = vikings.add(warriors).add(mages);
+
+      ByteVector current = ByteVector.fromArray(SPECIES, cells, idx);
+      ByteVector same = vikings.blend(warriors, current.eq((byte) 1)).blend(mages, current.eq((byte) 2));
+
+      // Births: the first tribe with exactly three neighbours wins.
+      ByteVector result = ByteVector.broadcast(SPECIES, NONE)
+          .blend((byte) 2, mages.eq((byte) 3))
+          .blend((byte) 1, warriors.eq((byte) 3))
+          .blend((byte) 0, vikings.eq((byte) 3));
+
+      VectorMask<Byte> alive = current.compare(VectorOperators.LT, NONE);
+      result = result.blend(NONE, alive);
+
+      VectorMask<Byte> staying = alive.and(inTwoOrThree(living));
+      VectorMask<Byte> sure = inTwoOrThree(same);
+      result = result.blend(current, staying.and(sure)).blend(COIN, staying.andNot(sure));
+
+      result.intoArray(next, idx);
+    }
+
+    ScalarRowKernel.stepCells(cells, stride, idx, to, next);
+  }
+
+  private static VectorMask<Byte> inTwoOrThree(ByteVector counts) {
+    return counts.compare(VectorOperators.GE, (byte) 2).and(counts.compare(VectorOperators.LE, (byte) 3));
+  }
+}